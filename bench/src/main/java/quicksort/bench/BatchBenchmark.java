@@ -0,0 +1,116 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many small arrays sorted as one batch, either as separate arrays or as segments of one flat array.
+ * The "arrays" counter gives throughput in arrays sorted per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    private static final Class<?> TEST_SETUP = QuickBridge.sortClass("Quick$TestSetup");
+    private static final MethodHandle SORT_ARRAYS = QuickBridge.staticMethod("BatchSort", "sort",
+            MethodType.methodType(void.class, List.class, Object.class, ForkJoinPool.class),
+            List.class, TEST_SETUP, ForkJoinPool.class);
+    private static final MethodHandle SORT_SEGMENTS = QuickBridge.staticMethod("BatchSort", "sort",
+            MethodType.methodType(void.class, int[].class, int[].class, Object.class, ForkJoinPool.class),
+            int[].class, int[].class, TEST_SETUP, ForkJoinPool.class);
+
+    /// "arrays" is one int[] per request, "flat" is one int[] with an offsets table
+    @Param({"arrays", "flat"})
+    public String layout;
+
+    @Param({"10", "100", "1000"})
+    public int arraySize;
+
+    /// Elements over the whole batch, split into arraySize pieces
+    @Param({"1000000"})
+    public int totalSize;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"block + Median Of Three on Random data+insertion below 12 once at end"})
+    public String test;
+
+    private Object setup;
+    private ForkJoinPool pool;
+    private int[] master;
+    private int[] flat;
+    private int[] offsets;
+    private List<int[]> arrays;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Sorted {
+        public long arrays;
+    }
+
+    @Setup(Level.Trial)
+    public void createBatch() {
+        setup = QuickBridge.findTest(test);
+        pool = new ForkJoinPool(threads);
+        int count = totalSize / arraySize;
+        master = QuickBridge.generate(setup, count * arraySize);
+        flat = new int[master.length];
+        offsets = new int[count + 1];
+        arrays = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            offsets[k + 1] = offsets[k] + arraySize;
+            arrays.add(new int[arraySize]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /// Restore the unsorted batch before every call
+    @Setup(Level.Invocation)
+    public void reset() {
+        if (layout.equals("flat")) {
+            System.arraycopy(master, 0, flat, 0, master.length);
+            return;
+        }
+        for (int k = 0; k < arrays.size(); k++) {
+            System.arraycopy(master, offsets[k], arrays.get(k), 0, arraySize);
+        }
+    }
+
+    @Benchmark
+    public Object sort(Sorted counter) throws Throwable {
+        counter.arrays += offsets.length - 1;
+        if (layout.equals("flat")) {
+            SORT_SEGMENTS.invokeExact(flat, offsets, setup, pool);
+            return flat;
+        }
+        SORT_ARRAYS.invokeExact(arrays, setup, pool);
+        return arrays;
+    }
+}
@@ -0,0 +1,85 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * External merge sort of a file on local disk, sweeping the in-memory run size.
+ * The "ints" counter gives throughput in sorted ints per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ExternalSortBenchmark {
+    private static final MethodHandle WRITE_RANDOM_FILE = QuickBridge.staticMethod("MappedSort", "writeRandomFile",
+            MethodType.methodType(void.class, Path.class, long.class, int.class, int.class, long.class),
+            Path.class, long.class, int.class, int.class, long.class);
+    private static final MethodHandle EXTERNAL_SORT = QuickBridge.staticMethod("ExternalSort", "sort",
+            MethodType.methodType(int.class, Path.class, Path.class, int.class, Object.class, Path.class),
+            Path.class, Path.class, int.class, QuickBridge.sortClass("Quick$TestSetup"), Path.class);
+
+    @Param({"65536", "1048576", "4194304"})
+    public int runSize;
+
+    @Param({"16777216"})
+    public long size;
+
+    @Param({"hoare + Median Of Three on Random data+insertion below 12 once at end"})
+    public String test;
+
+    private Object setup;
+    private Path tempDir;
+    private Path input;
+    private Path output;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Sorted {
+        public long ints;
+    }
+
+    @Setup(Level.Trial)
+    public void createInput() throws Throwable {
+        setup = QuickBridge.findTest(test);
+        tempDir = Files.createTempDirectory("external-sort");
+        input = tempDir.resolve("input.ints");
+        output = tempDir.resolve("output.ints");
+        WRITE_RANDOM_FILE.invokeExact(input, size, 100, 999, 0xDEADBEEFL);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Benchmark
+    public int sort(Sorted counter) throws Throwable {
+        int runs = (int) EXTERNAL_SORT.invokeExact(input, output, runSize, setup, tempDir);
+        counter.ints += size;
+        return runs;
+    }
+}
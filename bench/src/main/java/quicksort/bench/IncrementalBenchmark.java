@@ -0,0 +1,121 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stream of batches kept queryable in sorted order, by a SortedBuffer or by appending each batch
+ * to one array and sorting all of it again. Every batch is followed by a range count over the middle
+ * half of the value range, so both sides have to keep their sorted view current.
+ * The "batches" counter gives throughput in batches absorbed per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class IncrementalBenchmark {
+    private static final Class<?> TEST_SETUP = QuickBridge.sortClass("Quick$TestSetup");
+    private static final MethodHandle NEW_BUFFER = QuickBridge.constructor("SortedBuffer",
+            MethodType.methodType(Object.class, Object.class), TEST_SETUP);
+    private static final MethodHandle ADD = QuickBridge.instanceMethod("SortedBuffer", "add",
+            MethodType.methodType(void.class, Object.class, int[].class, int.class, int.class),
+            int[].class, int.class, int.class);
+    private static final MethodHandle COUNT = QuickBridge.instanceMethod("SortedBuffer", "count",
+            MethodType.methodType(long.class, Object.class, int.class, int.class),
+            int.class, int.class);
+
+    /// "buffer" merges batches into a SortedBuffer, "re-sort" sorts the whole array after every batch
+    @Param({"buffer", "re-sort"})
+    public String method;
+
+    @Param({"1000", "10000"})
+    public int batchSize;
+
+    /// Values streamed per call, in batchSize pieces
+    @Param({"100000"})
+    public int totalSize;
+
+    @Param({"block + Median Of Three on Random data+insertion below 12 once at end"})
+    public String test;
+
+    private Object setup;
+    private int[] master;
+    /// Middle half of the stream's value range, the bounds of every range count
+    private int low;
+    private int high;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Absorbed {
+        public long batches;
+    }
+
+    @Setup(Level.Trial)
+    public void createStream() {
+        setup = QuickBridge.findTest(test);
+        master = QuickBridge.generate(setup, totalSize - totalSize % batchSize);
+        int min = Arrays.stream(master).min().orElse(0);
+        int max = Arrays.stream(master).max().orElse(0);
+        // Random data spans [100, 998], giving [324, 774]; long so a full int range doesn't overflow
+        long quarter = ((long) max - min) / 4;
+        low = (int) (min + quarter);
+        high = (int) (max - quarter);
+    }
+
+    @Benchmark
+    public long stream(Absorbed counter) throws Throwable {
+        long found = 0;
+        if (method.equals("buffer")) {
+            Object buffer = (Object) NEW_BUFFER.invokeExact(setup);
+            for (int from = 0; from < master.length; from += batchSize) {
+                ADD.invokeExact(buffer, master, from, from + batchSize);
+                found += (long) COUNT.invokeExact(buffer, low, high);
+            }
+        } else {
+            int[] sorted = new int[0];
+            for (int from = 0; from < master.length; from += batchSize) {
+                sorted = Arrays.copyOf(sorted, from + batchSize);
+                System.arraycopy(master, from, sorted, from, batchSize);
+                QuickBridge.runSort(sorted, setup);
+                found += countSorted(sorted, low, high);
+            }
+        }
+        counter.batches += master.length / batchSize;
+        return found;
+    }
+
+    /// Values in [low, high] within sorted array
+    private static long countSorted(int[] array, int low, int high) {
+        int start = Arrays.binarySearch(array, low);
+        int end = Arrays.binarySearch(array, high);
+        // binarySearch lands on any copy of a present key, walk to the edge of its run of copies
+        start = start < 0 ? -start - 1 : edge(array, start, -1);
+        end = end < 0 ? -end - 1 : edge(array, end, 1) + 1;
+        return end - start;
+    }
+
+    private static int edge(int[] array, int i, int step) {
+        while (i + step >= 0 && i + step < array.length && array[i + step] == array[i]) {
+            i += step;
+        }
+        return i;
+    }
+}
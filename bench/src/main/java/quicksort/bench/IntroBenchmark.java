@@ -0,0 +1,87 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Introsort on generated and adversarial (sorted/reversed) input.
+ * The "fallbacks" counter reports heapsort fallbacks per sort.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class IntroBenchmark {
+
+    @Param({"lomuto", "hoare"})
+    public String partitioner;
+
+    @Param({"Always Pick Leftmost", "Always Pick Middle", "Always Pick Rightmost", "Median Of Three"})
+    public String pivot;
+
+    @Param({"Random"})
+    public String generator;
+
+    /// "generated" uses the setup's generator, the others replace it with an ordered sequence
+    @Param({"generated", "sorted", "reversed"})
+    public String order;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Fallbacks {
+        public long fallbacks;
+    }
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        setup = QuickBridge.findTest(QuickBridge.testName(partitioner, pivot, generator, 0, " introsort"));
+        work = new int[size];
+    }
+
+    @Setup(Level.Iteration)
+    public void generate() {
+        if (order.equals("generated")) {
+            master = QuickBridge.generate(setup, size);
+            return;
+        }
+        master = new int[size];
+        for (int i = 0; i < size; i++) {
+            master[i] = order.equals("sorted") ? i : size - i;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort(Fallbacks counter) {
+        long before = QuickBridge.introFallbacks(setup);
+        QuickBridge.runSort(work, setup);
+        counter.fallbacks += QuickBridge.introFallbacks(setup) - before;
+        return work;
+    }
+}
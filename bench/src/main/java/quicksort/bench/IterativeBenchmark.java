@@ -0,0 +1,70 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive quicksort against the explicit-stack iterative engine on the same pivot/partition pairs
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class IterativeBenchmark {
+
+    @Param({"lomuto", "hoare"})
+    public String partitioner;
+
+    @Param({"Always Pick Middle", "Median Of Three"})
+    public String pivot;
+
+    @Param({"recursive", "iterative"})
+    public String mode;
+
+    @Param({"Random"})
+    public String generator;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        String family = mode.equals("iterative") ? " iterative" : "";
+        setup = QuickBridge.findTest(QuickBridge.testName(partitioner, pivot, generator, 0, family));
+        work = new int[size];
+    }
+
+    @Setup(Level.Iteration)
+    public void generate() {
+        master = QuickBridge.generate(setup, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
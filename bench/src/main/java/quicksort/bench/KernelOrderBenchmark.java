@@ -0,0 +1,92 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Does a test's time depend on what ran before it in the same JVM?
+ * With "polluted" history the fork first runs a spread of other configurations, which makes the
+ * shared Quick.sort call sites megamorphic, and only then the measured test. A plain test slows
+ * down under pollution; its " specialized" variant should score the same either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class KernelOrderBenchmark {
+    /// Configurations run before the measured one, all with pivots that are safe on random data
+    private static final String[] POLLUTERS = {
+            "hoare + Median Of Three on Random data",
+            "hoare hole + Ninther on Random data",
+            "block + Median Of K on Random data",
+            "lane block + Seeded Random on Random data",
+            "lomuto branchless + Adaptive on Random data",
+            "three-way + Median Of Three on Random data",
+            "dual pivot + Ninther on Random data",
+    };
+    private static final int POLLUTION_SIZE = 1 << 16;
+    private static final int POLLUTION_ROUNDS = 200;
+
+    @Param({"hoare hole + Median Of Three on Random data", "block + Median Of Three on Random data"})
+    public String test;
+
+    /// "" is the test as is, " specialized" runs it on its own kernel class
+    @Param({"", " specialized"})
+    public String kernel;
+
+    @Param({"clean", "polluted"})
+    public String history;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        setup = QuickBridge.findTest(test + kernel);
+        master = QuickBridge.generate(setup, size);
+        work = new int[size];
+
+        if (history.equals("polluted")) {
+            Object[] polluters = new Object[POLLUTERS.length];
+            for (int i = 0; i < POLLUTERS.length; i++) {
+                polluters[i] = QuickBridge.findTest(POLLUTERS[i]);
+            }
+            int[] data = new int[POLLUTION_SIZE];
+            for (int round = 0; round < POLLUTION_ROUNDS; round++) {
+                for (Object polluter : polluters) {
+                    System.arraycopy(master, 0, data, 0, POLLUTION_SIZE);
+                    QuickBridge.runSort(data, polluter);
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
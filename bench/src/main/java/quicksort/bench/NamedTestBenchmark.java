@@ -0,0 +1,74 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Any getTests() variant by its out.csv name, for comparing families that don't fit the
+ * pivot x partitioner matrix of QuickBenchmark. Pass other names with -p test=...
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class NamedTestBenchmark {
+
+    @Param({
+            "hoare + Median Of Three on Random data",
+            "dual pivot + Median Of Three on Random data",
+            "radix sort on Random data",
+            "counting sort on Random data",
+            "hoare + Median Of Three on Sorted+1% noise data",
+            "hoare + Median Of Three on Organ pipe data",
+            "hoare + Median Of Three on Sawtooth 1000 data",
+            "three-way + Median Of Three on Zipfian 1000 data",
+            "dual pivot + Median Of Three on 1000 element runs data",
+            "hoare + Median Of Three on Sorted+1% noise data adaptive",
+            "hoare + Median Of Three on 1000 element runs data adaptive",
+            "hoare + Median Of Three on reversed data adaptive",
+    })
+    public String test;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        setup = QuickBridge.findTest(test);
+        work = new int[size];
+    }
+
+    @Setup(Level.Iteration)
+    public void generate() {
+        master = QuickBridge.generate(setup, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
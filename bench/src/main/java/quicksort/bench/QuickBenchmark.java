@@ -0,0 +1,78 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state timing of the getTests() matrix.
+ * Each parameter combination maps to one row of out.csv;
+ * a threshold of 0 is the variant without a subsort.
+ * The defaults are a representative slice (24 combinations, about 12 minutes); sweep the rest with -p, e.g.
+ * {@code -p partitioner=lomuto,hoare,"hoare hole","lomuto hole","lomuto branchless","lane block",block,three-way,"dual pivot"}
+ * {@code -p pivot="Always Pick Leftmost","Always Pick Middle","Always Pick Rightmost","Median Of Three",Ninther,"Seeded Random","Median Of K",Adaptive}
+ * {@code -p subsortThreshold=0,3,5,8,12,18,27,40,59,86,125},
+ * and add {@code -f 3} for run-to-run variance between JVMs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QuickBenchmark {
+
+    @Param({"hoare", "lomuto branchless", "block", "dual pivot"})
+    public String partitioner;
+
+    @Param({"Median Of Three", "Ninther"})
+    public String pivot;
+
+    @Param({"0", "12", "40"})
+    public int subsortThreshold;
+
+    @Param({"Random"})
+    public String generator;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        setup = QuickBridge.findTest(QuickBridge.testName(partitioner, pivot, generator, subsortThreshold));
+        work = new int[size];
+    }
+
+    /// New data each iteration, so variance between datasets shows up in the error bars
+    @Setup(Level.Iteration)
+    public void generate() {
+        master = QuickBridge.generate(setup, size);
+    }
+
+    /// Restore the unsorted data before every call; cheap next to a sort of this size
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
@@ -0,0 +1,237 @@
+package quicksort.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Access to Quick from a named package.
+ * Quick lives in the default package, which Java code in any other package cannot import,
+ * and JMH refuses to generate benchmarks in the default package,
+ * so the benchmarks reach it through method handles looked up once per trial.
+ */
+final class QuickBridge {
+    private static final MethodHandle FIND_TEST;
+    private static final MethodHandle GENERATE;
+    private static final MethodHandle RUN_SORT;
+    private static final MethodHandle INTRO_FALLBACKS;
+    private static final MethodHandle COPY_SETUP;
+    private static final MethodHandle SET_ENGINE;
+    private static final MethodHandle SET_PARTITIONER;
+
+    static {
+        try {
+            Class<?> quick = Class.forName("Quick");
+            Class<?> setup = Class.forName("Quick$TestSetup");
+            Class<?> generator = Class.forName("Quick$Generator");
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            FIND_TEST = unreflect(lookup, quick.getDeclaredMethod("findTest", String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            MethodHandle gen = lookup.unreflectGetter(accessible(setup.getDeclaredField("gen")));
+            MethodHandle generate = unreflect(lookup, generator.getDeclaredMethod("generate", int.class));
+            GENERATE = MethodHandles.filterArguments(generate, 0, gen)
+                    .asType(MethodType.methodType(int[].class, Object.class, int.class));
+            RUN_SORT = unreflect(lookup, quick.getDeclaredMethod("runSort", int[].class, setup))
+                    .asType(MethodType.methodType(void.class, int[].class, Object.class));
+
+            Class<?> introSort = Class.forName("Quick$IntroSort");
+            MethodHandle engine = lookup.unreflectGetter(accessible(setup.getDeclaredField("engine")));
+            MethodHandle fallbacks = lookup.unreflectGetter(accessible(introSort.getDeclaredField("fallbacks")));
+            INTRO_FALLBACKS = MethodHandles.filterArguments(fallbacks, 0,
+                            engine.asType(MethodType.methodType(introSort, setup)))
+                    .asType(MethodType.methodType(long.class, Object.class));
+
+            COPY_SETUP = lookup.unreflectConstructor(accessible(setup.getDeclaredConstructor(setup, String.class)))
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+            SET_ENGINE = lookup.unreflectSetter(accessible(setup.getDeclaredField("engine")))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            SET_PARTITIONER = lookup.unreflectSetter(accessible(setup.getDeclaredField("part")))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private QuickBridge() {
+    }
+
+    private static <T extends java.lang.reflect.AccessibleObject> T accessible(T member) {
+        member.setAccessible(true);
+        return member;
+    }
+
+    private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+        return lookup.unreflect(accessible(method));
+    }
+
+    /**
+     * Load a class from the default package, such as "Quick$TestSetup"
+     */
+    static Class<?> sortClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Look up a static method of a default package class
+     *
+     * @param owner            Class name, see sortClass
+     * @param name             Method name
+     * @param type             Type to adapt the handle to, with Object in place of inaccessible classes
+     * @param params           Declared parameter types of the method
+     */
+    static MethodHandle staticMethod(String owner, String name, MethodType type, Class<?>... params) {
+        try {
+            Method method = sortClass(owner).getDeclaredMethod(name, params);
+            return unreflect(MethodHandles.lookup(), method).asType(type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Look up an instance method of a default package class, the receiver is the handle's first parameter
+     *
+     * @param owner            Class name, see sortClass
+     * @param name             Method name
+     * @param type             Type to adapt the handle to, receiver included, with Object in place of inaccessible classes
+     * @param params           Declared parameter types of the method
+     */
+    static MethodHandle instanceMethod(String owner, String name, MethodType type, Class<?>... params) {
+        // unreflect already puts the receiver first, lookup is the same as for a static method
+        return staticMethod(owner, name, type, params);
+    }
+
+    /**
+     * Value of a static field of a default package class
+     *
+     * @param owner            Class name, see sortClass
+     * @param name             Field name
+     */
+    static Object staticField(String owner, String name) {
+        try {
+            return accessible(sortClass(owner).getDeclaredField(name)).get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Look up a constructor of a default package class
+     *
+     * @param owner            Class name, see sortClass
+     * @param type             Type to adapt the handle to, with Object in place of inaccessible classes
+     * @param params           Declared parameter types of the constructor
+     */
+    static MethodHandle constructor(String owner, MethodType type, Class<?>... params) {
+        try {
+            return MethodHandles.lookup().unreflectConstructor(accessible(sortClass(owner).getDeclaredConstructor(params)))
+                    .asType(type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Name of the getTests() variant for one point of the benchmark matrix, as written in out.csv
+     */
+    static String testName(String partitioner, String pivot, String generator, int subsortThreshold) {
+        String name = partitioner + " + " + pivot + " on " + generator + " data";
+        if (subsortThreshold > 0) {
+            name += "+insertion below " + subsortThreshold + " once at end";
+        }
+        return name;
+    }
+
+    /**
+     * Name of a getTests() variant from an extra family, such as " iterative", added to a base variant
+     */
+    static String testName(String partitioner, String pivot, String generator, int subsortThreshold, String family) {
+        return testName(partitioner, pivot, generator, subsortThreshold) + family;
+    }
+
+    /**
+     * @return the Quick.TestSetup with the given name
+     */
+    static Object findTest(String name) {
+        try {
+            return (Object) FIND_TEST.invokeExact(name);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Generate test data with the setup's generator
+     */
+    static int[] generate(Object setup, int size) {
+        try {
+            return (int[]) GENERATE.invokeExact(setup, size);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Sort the way main does, including the final subsort pass
+     */
+    static void runSort(int[] array, Object setup) {
+        try {
+            RUN_SORT.invokeExact(array, setup);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * @return how many ranges the setup's IntroSort engine has handed to heapsort so far
+     */
+    static long introFallbacks(Object setup) {
+        try {
+            return (long) INTRO_FALLBACKS.invokeExact(setup);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Copy of a setup that sorts with the given Quick.Engine, for engines built by the benchmark itself
+     */
+    static Object withEngine(Object setup, Object engine) {
+        try {
+            Object copy = (Object) COPY_SETUP.invokeExact(setup, "benchmark engine");
+            SET_ENGINE.invokeExact(copy, engine);
+            return copy;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Copy of a setup that partitions with the given Quick.Partitioner, for partitioners outside getTests()
+     */
+    static Object withPartitioner(Object setup, Object partitioner) {
+        try {
+            Object copy = (Object) COPY_SETUP.invokeExact(setup, "benchmark partitioner");
+            SET_PARTITIONER.invokeExact(copy, partitioner);
+            return copy;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new RuntimeException(t);
+    }
+}
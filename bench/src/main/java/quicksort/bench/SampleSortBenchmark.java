@@ -0,0 +1,68 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel sample sort against the same setup's single-threaded sort, for reading off scaling.
+ * Thread counts above the machine's core count are still run, to show where scaling stops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class SampleSortBenchmark {
+    private static final MethodHandle NEW_SAMPLE_SORT = QuickBridge.constructor("SampleSort",
+            MethodType.methodType(Object.class, int.class), int.class);
+
+    /// 0 runs the setup single-threaded as getTests() defines it, anything else is sample sort on that many threads
+    @Param({"0", "1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"hoare + Median Of Three on Uniform data"})
+    public String test;
+
+    @Param({"10000000", "100000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() throws Throwable {
+        setup = QuickBridge.findTest(test);
+        master = QuickBridge.generate(setup, size);
+        work = new int[size];
+        if (threads > 0) {
+            setup = QuickBridge.withEngine(setup, (Object) NEW_SAMPLE_SORT.invokeExact(threads));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
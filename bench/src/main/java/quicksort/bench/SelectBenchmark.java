@@ -0,0 +1,108 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order statistics found with QuickSelect against sorting the whole array and indexing it.
+ * "median" is one rank, "top 100" the 100 smallest values in order, "percentiles" p50, p90, p99 and p99.9.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Thread)
+public class SelectBenchmark {
+    private static final Class<?> TEST_SETUP = QuickBridge.sortClass("Quick$TestSetup");
+    private static final MethodHandle SELECT = QuickBridge.staticMethod("QuickSelect", "select",
+            MethodType.methodType(int.class, int[].class, int.class, Object.class),
+            int[].class, int.class, TEST_SETUP);
+    private static final MethodHandle PARTIAL_SORT = QuickBridge.staticMethod("QuickSelect", "partialSort",
+            MethodType.methodType(void.class, int[].class, int.class, Object.class),
+            int[].class, int.class, TEST_SETUP);
+    private static final MethodHandle PERCENTILES = QuickBridge.staticMethod("QuickSelect", "percentiles",
+            MethodType.methodType(int[].class, int[].class, double[].class, Object.class),
+            int[].class, double[].class, TEST_SETUP);
+
+    private static final int TOP = 100;
+    private static final double[] PERCENTS = {50, 90, 99, 99.9};
+
+    @Param({"median", "top 100", "percentiles"})
+    public String query;
+
+    /// "select" only partitions towards the wanted ranks, "full sort" sorts everything first
+    @Param({"select", "full sort"})
+    public String method;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"hoare hole + Median Of Three on Random data", "three-way + Median Of Three on Random data"})
+    public String test;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+    private int[] ranks;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        setup = QuickBridge.findTest(test);
+        master = QuickBridge.generate(setup, size);
+        work = new int[size];
+        ranks = new int[PERCENTS.length];
+        for (int i = 0; i < PERCENTS.length; i++) {
+            ranks[i] = Math.max(0, (int) Math.ceil(PERCENTS[i] / 100.0 * size) - 1);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public long query() throws Throwable {
+        if (method.equals("full sort")) {
+            QuickBridge.runSort(work, setup);
+            return fromSorted();
+        }
+        switch (query) {
+            case "median":
+                return (int) SELECT.invokeExact(work, size / 2, setup);
+            case "top 100":
+                PARTIAL_SORT.invokeExact(work, TOP, setup);
+                return work[TOP - 1];
+            default:
+                int[] values = (int[]) PERCENTILES.invokeExact(work, PERCENTS, setup);
+                return values[values.length - 1];
+        }
+    }
+
+    /// The same answer read from a fully sorted array
+    private long fromSorted() {
+        switch (query) {
+            case "median":
+                return work[size / 2];
+            case "top 100":
+                return work[TOP - 1];
+            default:
+                return work[ranks[ranks.length - 1]];
+        }
+    }
+}
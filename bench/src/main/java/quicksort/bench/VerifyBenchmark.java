@@ -0,0 +1,63 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sortedness checks on an already sorted array, which is the case that has to scan everything:
+ * the per-element loop, the lane-blocked loop, and Arrays.mismatch against a reference copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class VerifyBenchmark {
+    private static final MethodHandle IS_SORTED = QuickBridge.staticMethod("Quick", "isSorted",
+            MethodType.methodType(boolean.class, int[].class), int[].class);
+    private static final MethodHandle IS_SORTED_BLOCKED = QuickBridge.staticMethod("Quick", "isSortedBlocked",
+            MethodType.methodType(boolean.class, int[].class), int[].class);
+
+    @Param({"1000000"})
+    public int size;
+
+    private int[] sorted;
+    private int[] reference;
+
+    @Setup
+    public void generate() {
+        sorted = QuickBridge.generate(QuickBridge.findTest("hoare + Median Of Three on Random data"), size);
+        Arrays.sort(sorted);
+        reference = sorted.clone();
+    }
+
+    @Benchmark
+    public boolean scalar() throws Throwable {
+        return (boolean) IS_SORTED.invokeExact(sorted);
+    }
+
+    @Benchmark
+    public boolean laneBlocked() throws Throwable {
+        return (boolean) IS_SORTED_BLOCKED.invokeExact(sorted);
+    }
+
+    @Benchmark
+    public int mismatch() {
+        return Arrays.mismatch(sorted, reference);
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ExternalSort output against Arrays.sort of the same ints, for every shape of run layout
+ */
+class ExternalSortTest {
+    private static final Quick.TestSetup SETUP =
+            Quick.findTest("block + Median Of Three on Random data+insertion below 12 once at end");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void singleRun() throws IOException {
+        assertSorts(randomInts(1000, 1), 4096, 1);
+    }
+
+    @Test
+    void severalRuns() throws IOException {
+        // The last run is short
+        assertSorts(randomInts(10 * 512 + 7, 2), 512, 11);
+    }
+
+    @Test
+    void exactRuns() throws IOException {
+        assertSorts(randomInts(4 * 512, 3), 512, 4);
+    }
+
+    @Test
+    void intermediateMergePass() throws IOException {
+        int runs = 2 * ExternalSort.MAX_FAN_IN + 3;
+        assertSorts(randomInts(runs * 16 - 5, 4), 16, runs);
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        assertSorts(new int[0], 64, 0);
+    }
+
+    @Test
+    void duplicatesAndExtremes() throws IOException {
+        int[] values = new int[3000];
+        Random random = new Random(5);
+        int[] pool = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE};
+        for (int i = 0; i < values.length; i++) {
+            values[i] = pool[random.nextInt(pool.length)];
+        }
+        assertSorts(values, 100, 30);
+    }
+
+    @Test
+    void partialTrailingInt() throws IOException {
+        Path input = dir.resolve("input.ints");
+        byte[] bytes = Arrays.copyOf(toBytes(randomInts(100, 6)), 100 * Integer.BYTES + 3);
+        Files.write(input, bytes);
+        Path temp = Files.createDirectory(dir.resolve("temp"));
+
+        assertThrows(IOException.class, () -> ExternalSort.sort(input, dir.resolve("output.ints"), 64, SETUP, temp));
+        assertEquals(0, fileCount(temp));
+    }
+
+    /**
+     * Sort values through files and compare with Arrays.sort, and check no run file is left behind
+     */
+    private void assertSorts(int[] values, int runSize, int expectedRuns) throws IOException {
+        Path input = dir.resolve("input.ints");
+        Path output = dir.resolve("output.ints");
+        Path temp = Files.createDirectory(dir.resolve("temp"));
+        Files.write(input, toBytes(values));
+
+        int spilled = ExternalSort.sort(input, output, runSize, SETUP, temp);
+
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertEquals(expectedRuns, spilled);
+        assertArrayEquals(expected, fromBytes(Files.readAllBytes(output)));
+        assertArrayEquals(values, fromBytes(Files.readAllBytes(input)), "input changed");
+        assertEquals(0, fileCount(temp));
+    }
+
+    private static int[] randomInts(int count, long seed) {
+        return new Random(seed).ints(count).toArray();
+    }
+
+    private static byte[] toBytes(int[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(MappedIntArray.ORDER);
+        buffer.asIntBuffer().put(values);
+        return buffer.array();
+    }
+
+    private static int[] fromBytes(byte[] bytes) {
+        IntBuffer ints = ByteBuffer.wrap(bytes).order(MappedIntArray.ORDER).asIntBuffer();
+        int[] values = new int[ints.remaining()];
+        ints.get(values);
+        return values;
+    }
+
+    private static long fileCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * QuickDouble against Arrays.sort(double[]), which puts NaN last and -0.0 before 0.0.
+ * assertArrayEquals compares doubleToLongBits, so a 0.0 where -0.0 belongs fails
+ */
+class QuickDoubleTest {
+    private static final QuickDouble.Setup[] SETUPS = {
+            QuickDouble.DEFAULT,
+            new QuickDouble.Setup(QuickDouble::alwaysPickMiddle, QuickDouble::partition_Lomuto, 0, null),
+            new QuickDouble.Setup(QuickDouble::medianOfThree, QuickDouble::partition_Hoare, 0, null),
+    };
+    private static final double[] SPECIAL = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+
+    @Test
+    void randomWithSpecialValues() {
+        Random random = new Random(1);
+        for (int size : new int[]{2, 3, 17, 100, 1000, 20000}) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(4) == 0 ? SPECIAL[random.nextInt(SPECIAL.length)] : random.nextGaussian();
+            }
+            assertSorts(values);
+        }
+    }
+
+    @Test
+    void signedZerosOnly() {
+        Random random = new Random(2);
+        double[] values = new double[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextBoolean() ? -0.0 : 0.0;
+        }
+        assertSorts(values);
+    }
+
+    @Test
+    void zerosBetweenNegativesAndPositives() {
+        assertSorts(new double[]{0.0, -1.0, -0.0, 1.0, 0.0, -0.0, -2.5, Double.NaN, 2.5, -0.0});
+    }
+
+    @Test
+    void nanOnly() {
+        double[] values = new double[64];
+        Arrays.fill(values, Double.NaN);
+        // A NaN with another bit pattern is still NaN to Arrays.sort
+        values[10] = Double.longBitsToDouble(0x7ff8000000000001L);
+        assertSorts(values);
+    }
+
+    @Test
+    void nanAtBothEnds() {
+        assertSorts(new double[]{Double.NaN, 3.0, -0.0, 1.0, 0.0, Double.NaN});
+    }
+
+    @Test
+    void tinyArrays() {
+        assertSorts(new double[0]);
+        assertSorts(new double[]{Double.NaN});
+        assertSorts(new double[]{-0.0});
+        assertSorts(new double[]{0.0, -0.0});
+        assertSorts(new double[]{Double.NaN, -0.0});
+    }
+
+    @Test
+    void sortedAndReversed() {
+        double[] values = new double[3000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i - 1500;
+        }
+        values[1500] = -0.0;
+        assertSorts(values);
+        for (int i = 0; i < values.length / 2; i++) {
+            QuickDouble.swap(values, i, values.length - 1 - i);
+        }
+        assertSorts(values);
+    }
+
+    private static void assertSorts(double[] values) {
+        double[] expected = values.clone();
+        Arrays.sort(expected);
+        for (QuickDouble.Setup setup : SETUPS) {
+            double[] actual = values.clone();
+            QuickDouble.sort(actual, setup);
+            assertArrayEquals(expected, actual, () -> "sorting " + Arrays.toString(values));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * QuickSelect answers against the same positions of an Arrays.sort copy
+ */
+class QuickSelectTest {
+    private static final String[] TESTS = {
+            "hoare hole + Median Of Three on Random data",
+            "lomuto + Ninther on Random data",
+            "three-way + Median Of Three on Random data",
+            "dual pivot + Median Of Three on Random data",
+            "block + Median Of Three on Random data+insertion below 12 once at end",
+    };
+
+    @Test
+    void select() {
+        for (String name : TESTS) {
+            Quick.TestSetup setup = Quick.findTest(name);
+            for (int[] values : inputs()) {
+                int[] sorted = sorted(values);
+                for (int k : ranks(values.length)) {
+                    int[] work = values.clone();
+                    assertEquals(sorted[k], QuickSelect.select(work, k, setup), name);
+                    for (int i = 0; i < work.length; i++) {
+                        assertTrue(i < k ? work[i] <= work[k] : work[i] >= work[k], name + " rank " + k + " index " + i);
+                    }
+                    assertArrayEquals(sorted, sorted(work), name + " lost or duplicated values");
+                }
+            }
+        }
+    }
+
+    @Test
+    void partialSort() {
+        for (String name : TESTS) {
+            Quick.TestSetup setup = Quick.findTest(name);
+            for (int[] values : inputs()) {
+                int[] sorted = sorted(values);
+                int[] counts = Arrays.stream(new int[]{0, 1, 2, values.length / 2, values.length - 1, values.length})
+                        .filter(k -> k >= 0 && k <= values.length).distinct().toArray();
+                for (int k : counts) {
+                    int[] work = values.clone();
+                    QuickSelect.partialSort(work, k, setup);
+                    assertArrayEquals(Arrays.copyOf(sorted, k), Arrays.copyOf(work, k), name + " top " + k);
+                    assertArrayEquals(sorted, sorted(work), name + " lost or duplicated values");
+                }
+            }
+        }
+    }
+
+    @Test
+    void multiSelectAndPercentiles() {
+        double[] percents = {0, 1, 50, 90, 99, 99.9, 100};
+        for (String name : TESTS) {
+            Quick.TestSetup setup = Quick.findTest(name);
+            for (int[] values : inputs()) {
+                int[] sorted = sorted(values);
+                int n = values.length;
+                int[] wanted = {n - 1, 0, n / 2, n / 2, n / 3, n - 2};
+                int[] expected = new int[wanted.length];
+                for (int i = 0; i < wanted.length; i++) {
+                    wanted[i] = Math.max(0, wanted[i]);
+                    expected[i] = sorted[wanted[i]];
+                }
+                assertArrayEquals(expected, QuickSelect.multiSelect(values.clone(), wanted, setup), name);
+
+                int[] percentiles = new int[percents.length];
+                for (int i = 0; i < percents.length; i++) {
+                    int rank = (int) Math.ceil(percents[i] / 100.0 * n) - 1;
+                    percentiles[i] = sorted[Math.max(0, Math.min(n - 1, rank))];
+                }
+                assertArrayEquals(percentiles, QuickSelect.percentiles(values.clone(), percents, setup), name);
+            }
+        }
+    }
+
+    @Test
+    void outOfRange() {
+        Quick.TestSetup setup = Quick.findTest(TESTS[0]);
+        int[] values = {3, 1, 2};
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(values, 3, setup));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(values, -1, setup));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.partialSort(values, 4, setup));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.multiSelect(values, new int[]{0, 3}, setup));
+
+        int[] empty = new int[0];
+        QuickSelect.partialSort(empty, 0, setup);
+        assertArrayEquals(new int[0], QuickSelect.multiSelect(empty, new int[0], setup));
+    }
+
+    /// Wide random values, many duplicates, all equal, sorted and tiny arrays
+    private static int[][] inputs() {
+        Random random = new Random(7);
+        int[] ascending = new int[2000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i;
+        }
+        int[] equal = new int[500];
+        Arrays.fill(equal, 42);
+        return new int[][]{
+                random.ints(5000).toArray(),
+                random.ints(5000, 100, 999).toArray(),
+                random.ints(3000, 0, 4).toArray(),
+                equal,
+                ascending,
+                {5},
+                {2, 1},
+                {3, 3, 1},
+        };
+    }
+
+    private static int[] ranks(int length) {
+        return Arrays.stream(new int[]{0, 1, length / 3, length / 2, length - 2, length - 1})
+                .filter(k -> k >= 0 && k < length).distinct().toArray();
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
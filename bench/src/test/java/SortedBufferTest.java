@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SortedBuffer queries against an Arrays.sort of everything added so far
+ */
+class SortedBufferTest {
+    private static final Quick.TestSetup SETUP =
+            Quick.findTest("block + Median Of Three on Random data+insertion below 12 once at end");
+
+    @Test
+    void queriesAfterEveryBatch() {
+        Random random = new Random(11);
+        SortedBuffer buffer = new SortedBuffer(SETUP);
+        int[] all = new int[0];
+        // Batch sizes on both sides of BASE_RUN, enough of them to cascade merges through several tiers
+        for (int batch = 0; batch < 120; batch++) {
+            int[] values = random.ints(1 + random.nextInt(3 * SortedBuffer.BASE_RUN), 0, 5000).toArray();
+            int[] before = values.clone();
+            buffer.add(values);
+            assertArrayEquals(before, values, "add changed the batch");
+
+            all = Arrays.copyOf(all, all.length + values.length);
+            System.arraycopy(values, 0, all, all.length - values.length, values.length);
+            int[] sorted = all.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(sorted.length, buffer.size());
+            for (int[] bounds : new int[][]{{1250, 3749}, {0, 4999}, {4000, 100}, {-10, -1}, {2500, 2500}}) {
+                int[] expected = range(sorted, bounds[0], bounds[1]);
+                assertEquals(expected.length, buffer.count(bounds[0], bounds[1]), Arrays.toString(bounds));
+                assertArrayEquals(expected, buffer.range(bounds[0], bounds[1]), Arrays.toString(bounds));
+            }
+            if (batch % 10 == 0) {
+                assertArrayEquals(sorted, iterate(buffer));
+            }
+        }
+        assertTrue(buffer.runCount() < 120, "runs were never merged");
+
+        int[] sorted = all.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, buffer.toArray());
+        assertEquals(1, buffer.runCount());
+        assertArrayEquals(sorted, iterate(buffer));
+    }
+
+    @Test
+    void subrangesAndExtremes() {
+        SortedBuffer buffer = new SortedBuffer(SETUP);
+        int[] batch = {Integer.MAX_VALUE, 5, Integer.MIN_VALUE, 5, 0, -7, 5};
+        buffer.add(batch, 1, 6);
+        buffer.add(batch, 3, 3);
+        buffer.add(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE});
+
+        int[] expected = {Integer.MIN_VALUE, Integer.MIN_VALUE, -7, 0, 5, 5, Integer.MAX_VALUE};
+        assertArrayEquals(expected, iterate(buffer));
+        assertEquals(expected.length, buffer.count(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(2, buffer.count(5, 5));
+        assertArrayEquals(new int[]{-7, 0, 5, 5}, buffer.range(-7, 5));
+        assertArrayEquals(expected, buffer.toArray());
+    }
+
+    @Test
+    void empty() {
+        SortedBuffer buffer = new SortedBuffer(SETUP);
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.count(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertArrayEquals(new int[0], buffer.range(0, 10));
+        assertArrayEquals(new int[0], buffer.toArray());
+        PrimitiveIterator.OfInt iterator = buffer.iterator();
+        assertFalse(iterator.hasNext());
+        assertThrows(java.util.NoSuchElementException.class, iterator::nextInt);
+    }
+
+    @Test
+    void iteratorIgnoresLaterAdds() {
+        SortedBuffer buffer = new SortedBuffer(SETUP);
+        buffer.add(new int[]{3, 1, 2});
+        PrimitiveIterator.OfInt iterator = buffer.iterator();
+        buffer.add(new int[]{0, 4});
+        int[] seen = new int[3];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = iterator.nextInt();
+        }
+        assertArrayEquals(new int[]{1, 2, 3}, seen);
+        assertFalse(iterator.hasNext());
+    }
+
+    /// Values of sorted in [low, high]
+    private static int[] range(int[] sorted, int low, int high) {
+        return Arrays.stream(sorted).filter(v -> v >= low && v <= high).toArray();
+    }
+
+    private static int[] iterate(SortedBuffer buffer) {
+        int[] values = new int[(int) buffer.size()];
+        PrimitiveIterator.OfInt iterator = buffer.iterator();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = iterator.nextInt();
+        }
+        assertFalse(iterator.hasNext());
+        return values;
+    }
+}
@@ -0,0 +1,71 @@
+package quicksort.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Median of three quicksort with the Vector API partitioner against the scalar lane block and Lomuto ones.
+ * Only built by the vector profile. The forks use the widest AVX the CPU has; add
+ * `-jvmArgsAppend -XX:UseAVX=2` to measure on AVX2 alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 3, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class VectorPartitionBenchmark {
+    /// "vector" is VectorKernels.partition_Vector, the others are getTests() partitioners
+    @Param({"vector", "lane block", "lomuto branchless", "lomuto"})
+    public String partitioner;
+
+    /// "Random" has few distinct values, "Uniform" spreads them over the whole int range
+    @Param({"Random", "Uniform"})
+    public String data;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Object setup;
+    private int[] master;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void createSetup() {
+        String base = partitioner.equals("vector") ? "lane block" : partitioner;
+        setup = QuickBridge.findTest(QuickBridge.testName(base, "Median Of Three", "Random", 0));
+        if (partitioner.equals("vector")) {
+            Object vector = QuickBridge.staticField("VectorKernels", "PARTITIONER");
+            setup = QuickBridge.withPartitioner(setup, vector);
+        }
+        if (data.equals("Uniform")) {
+            master = new java.util.SplittableRandom(0x5EEDL).ints(size).toArray();
+        } else {
+            master = QuickBridge.generate(setup, size);
+        }
+        work = new int[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(master, 0, work, 0, size);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        QuickBridge.runSort(work, setup);
+        return work;
+    }
+}
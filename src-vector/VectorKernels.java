@@ -0,0 +1,131 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * jdk.incubator.vector versions of Quick.partition_LaneBlock and Quick.isSortedBlocked.
+ * Needs JDK 16+ and --add-modules jdk.incubator.vector, so it lives outside src and is only compiled by
+ * the bench module's vector profile; the scalar versions in Quick stay the Java 11 code path.
+ * JDK 17 has no VectorMask.compress, so lanes are packed with a shuffle looked up by mask bits,
+ * which limits the partitioner to 8 lanes (256 bits, one AVX2 register) to keep the tables small.
+ */
+public class VectorKernels {
+    static final VectorSpecies<Integer> PARTITION_SPECIES = IntVector.SPECIES_256;
+    static final int PARTITION_LANES = PARTITION_SPECIES.length();
+    /// Widest the hardware has, the sortedness check needs no tables
+    static final VectorSpecies<Integer> CHECK_SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /// Lane i holds 1 << i, blended under a mask and OR-reduced it gives the mask's bits
+    private static final int[] LANE_BITS = laneBits();
+    /// Shuffle indices for every mask of PARTITION_LANES bits, PARTITION_LANES per mask:
+    /// the set lanes, in order, moved to the front
+    private static final int[] PACK_SET = packTable(true);
+    /// The same for the clear lanes
+    private static final int[] PACK_CLEAR = packTable(false);
+
+    /// The vector partitioner as a Quick.Partitioner, for building TestSetups
+    static final Quick.Partitioner PARTITIONER = VectorKernels::partition_Vector;
+
+    private static int[] laneBits() {
+        int[] bits = new int[PARTITION_LANES];
+        for (int lane = 0; lane < PARTITION_LANES; lane++) {
+            bits[lane] = 1 << lane;
+        }
+        return bits;
+    }
+
+    private static int[] packTable(boolean set) {
+        int[] table = new int[PARTITION_LANES << PARTITION_LANES];
+        for (int mask = 0; mask < 1 << PARTITION_LANES; mask++) {
+            // The lanes past the packed ones are overwritten by the next block, lane 0 will do
+            int next = mask * PARTITION_LANES;
+            for (int lane = 0; lane < PARTITION_LANES; lane++) {
+                if (((mask >>> lane) & 1) == (set ? 1 : 0)) {
+                    table[next++] = lane;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * partition_LaneBlock with one vector compare per block: the lanes less than the pivot are packed to the
+     * left buffer (the array itself, behind the read position) and the rest to the right buffer in scratch
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_Vector(int[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        Quick.swap(array, left, pivot);
+
+        int pv = array[left];
+        // A whole vector is stored at the fill point, so leave room for one past the last element
+        int[] high = Quick.SCRATCH.get().buffer(right - left + PARTITION_LANES);
+        IntVector pivots = IntVector.broadcast(PARTITION_SPECIES, pv);
+        IntVector laneBits = IntVector.fromArray(PARTITION_SPECIES, LANE_BITS, 0);
+        IntVector zero = IntVector.zero(PARTITION_SPECIES);
+        int s = left + 1;
+        int h = 0;
+
+        int i = left + 1;
+        for (; i + PARTITION_LANES - 1 <= right; i += PARTITION_LANES) {
+            IntVector block = IntVector.fromArray(PARTITION_SPECIES, array, i);
+            VectorMask<Integer> smaller = block.compare(VectorOperators.LT, pivots);
+            // JDK 17 doesn't intrinsify VectorMask.toLong, a blend and a lane reduction it does
+            int bits = zero.blend(laneBits, smaller).reduceLanes(VectorOperators.OR);
+            int count = Integer.bitCount(bits);
+            int table = bits * PARTITION_LANES;
+            // s <= i, so the store only covers lanes already read
+            block.rearrange(IntVector.fromArray(PARTITION_SPECIES, PACK_SET, table).toShuffle()).intoArray(array, s);
+            block.rearrange(IntVector.fromArray(PARTITION_SPECIES, PACK_CLEAR, table).toShuffle()).intoArray(high, h);
+            s += count;
+            h += PARTITION_LANES - count;
+        }
+        // Partial last block, as in partition_LaneBlock
+        for (; i <= right; i++) {
+            int x = array[i];
+            int smaller = (int) (((long) x - pv) >>> 63);
+            array[s] = x;
+            high[h] = x;
+            s += smaller;
+            h += 1 - smaller;
+        }
+        System.arraycopy(high, 0, array, s, h);
+
+        Quick.swap(array, left, s - 1);
+
+        // Counted like partition_LaneBlock: two buffer writes per element, then the copy back
+        if (SortMetrics.ENABLED) {
+            Quick.countWork(right - left, 2L * (right - left) + h + 4);
+        }
+        return s - 1;
+    }
+
+    /**
+     * True if arr is in ascending order: each block is compared with the same block shifted by one,
+     * and one mask test per block stands in for a branch per element
+     */
+    public static boolean isSortedVector(int[] arr) {
+        int lanes = CHECK_SPECIES.length();
+        int k = 0;
+        // Every block reads one element past its end
+        for (; k + lanes < arr.length; k += lanes) {
+            IntVector current = IntVector.fromArray(CHECK_SPECIES, arr, k);
+            IntVector next = IntVector.fromArray(CHECK_SPECIES, arr, k + 1);
+            if (current.compare(VectorOperators.GT, next).anyTrue()) {
+                return false;
+            }
+        }
+        for (k = Math.max(k, 1); k < arr.length; k++) {
+            if (arr[k - 1] > arr[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Picks the fastest getTests() configuration for each (size bucket, data profile) on this machine
+ * and stores the picks in a small properties file, which Quick.sort(int[]) reads once and then
+ * dispatches from without any timing of its own.
+ *
+ * Calibration runs in three rounds per bucket and profile: every pivot picker x partitioner pair
+ * on doubling sizes up to the bucket's calibration size, dropping pairs that fall far behind
+ * (so quadratic ones never reach the big sizes); then every subsort threshold for the winning pair;
+ * then the winner against the pair's introsort and adaptive variants.
+ *
+ * Run with: java AutoTuner [profile file]
+ */
+public class AutoTuner {
+    /// System property naming the profile file read by Quick.sort(int[])
+    static final String PROFILE_PROPERTY = "quick.profile";
+    static final String DEFAULT_PROFILE = "quick-profile.properties";
+    /// Used for every bucket when there is no profile, or the profile names a test that no longer exists
+    static final String FALLBACK = "block + Median Of Three on Random data+insertion below 12 once at end";
+
+    /// Inclusive upper size of each bucket, and the size calibrated for it
+    static final int[] BUCKET_LIMITS = {64, 1024, 1 << 16, Integer.MAX_VALUE};
+    static final int[] CALIBRATION_SIZES = {48, 768, 49152, 1 << 20};
+
+    /// Elements per timed batch, small arrays are sorted many times per measurement
+    static final int BATCH_ELEMENTS = 1 << 16;
+    /// First size of the pair round, and how far behind the best a pair may fall before it is dropped
+    static final int SCREEN_SIZE = 4096;
+    static final double SCREEN_SLACK = 3.0;
+    /// Timed batches per candidate, the fastest counts
+    static final int REPS = 5;
+
+    /// Positions sampled by classify
+    static final int PROFILE_SAMPLES = 64;
+
+    /**
+     * Shapes of input that want different configurations
+     */
+    enum DataProfile {
+        RANDOM, DUPLICATES, PRESORTED;
+
+        /// Calibration data standing in for this shape
+        Quick.Generator generator() {
+            long seed = 0x5EEDL;
+            switch (this) {
+                case DUPLICATES:
+                    return Generators.zipfian(1000, 1.0, seed);
+                case PRESORTED:
+                    return Generators.sortedWithNoise(1, seed);
+                default:
+                    return Generators.uniform(0, Integer.MAX_VALUE, seed);
+            }
+        }
+    }
+
+    /// Chosen test for [bucket][profile]
+    private final Quick.TestSetup[][] choices;
+
+    private AutoTuner(Quick.TestSetup[][] choices) {
+        this.choices = choices;
+    }
+
+    /**
+     * Lazily loaded profile for Quick.sort(int[])
+     */
+    private static class Installed {
+        static final AutoTuner INSTANCE = loadOrFallback(Path.of(System.getProperty(PROFILE_PROPERTY, DEFAULT_PROFILE)));
+    }
+
+    static AutoTuner installed() {
+        return Installed.INSTANCE;
+    }
+
+    /**
+     * Configuration to sort array with
+     */
+    Quick.TestSetup choose(int[] array) {
+        return choices[bucket(array.length)][classify(array).ordinal()];
+    }
+
+    static int bucket(int size) {
+        int b = 0;
+        while (size > BUCKET_LIMITS[b]) {
+            b++;
+        }
+        return b;
+    }
+
+    /**
+     * Guess the shape of array from PROFILE_SAMPLES evenly spaced neighbour pairs:
+     * nearly all pairs in order (either way) is presorted, many repeated values is duplicates
+     */
+    static DataProfile classify(int[] array) {
+        int n = array.length;
+        if (n < 2 * PROFILE_SAMPLES) {
+            return DataProfile.RANDOM;
+        }
+
+        int step = (n - 1) / PROFILE_SAMPLES;
+        int ascending = 0;
+        int descending = 0;
+        int[] sample = Quick.SCRATCH.get().profileSample;
+        for (int k = 0; k < PROFILE_SAMPLES; k++) {
+            int i = k * step;
+            ascending += array[i] <= array[i + 1] ? 1 : 0;
+            descending += array[i] >= array[i + 1] ? 1 : 0;
+            sample[k] = array[i];
+        }
+        int ordered = PROFILE_SAMPLES * 9 / 10;
+        if (ascending >= ordered || descending >= ordered) {
+            return DataProfile.PRESORTED;
+        }
+
+        Arrays.sort(sample);
+        int distinct = 1;
+        for (int k = 1; k < PROFILE_SAMPLES; k++) {
+            distinct += sample[k] != sample[k - 1] ? 1 : 0;
+        }
+        return distinct < PROFILE_SAMPLES * 3 / 4 ? DataProfile.DUPLICATES : DataProfile.RANDOM;
+    }
+
+    /**
+     * Read a profile written by save, or use FALLBACK everywhere when there is none.
+     * Only the named setups are built, with Quick.buildTest, so their engines keep no shared counters
+     */
+    static AutoTuner loadOrFallback(Path file) {
+        Map<String, Quick.TestSetup> tests = new HashMap<>();
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Quick.TestSetup fallback = Quick.buildTest(FALLBACK);
+        Quick.TestSetup[][] choices = new Quick.TestSetup[BUCKET_LIMITS.length][DataProfile.values().length];
+        for (int b = 0; b < BUCKET_LIMITS.length; b++) {
+            for (DataProfile profile : DataProfile.values()) {
+                String name = properties.getProperty(key(b, profile));
+                Quick.TestSetup setup = name == null ? null : tests.computeIfAbsent(name, Quick::buildTest);
+                if (name != null && setup == null) {
+                    System.err.println("Profile " + file + " names " + name + ", which Quick.sort(int[]) can't build, using " + FALLBACK);
+                }
+                choices[b][profile.ordinal()] = setup == null ? fallback : setup;
+            }
+        }
+        return new AutoTuner(choices);
+    }
+
+    void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        for (int b = 0; b < BUCKET_LIMITS.length; b++) {
+            for (DataProfile profile : DataProfile.values()) {
+                properties.setProperty(key(b, profile), choices[b][profile.ordinal()].name);
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(out, "Quick.sort(int[]) configurations, written by AutoTuner");
+        }
+    }
+
+    private static String key(int bucket, DataProfile profile) {
+        String limit = BUCKET_LIMITS[bucket] == Integer.MAX_VALUE ? "max" : Integer.toString(BUCKET_LIMITS[bucket]);
+        return "upto." + limit + "." + profile.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Quick.TestSetup> testsByName() {
+        Map<String, Quick.TestSetup> tests = new LinkedHashMap<>();
+        for (Quick.TestSetup setup : Quick.getTests()) {
+            tests.put(setup.name, setup);
+        }
+        return tests;
+    }
+
+    /**
+     * Time every bucket and profile on this machine
+     */
+    static AutoTuner calibrate(PrintStream log) {
+        Map<String, Quick.TestSetup> tests = testsByName();
+        List<Quick.TestSetup> pairs = new ArrayList<>();
+        for (Quick.TestSetup setup : tests.values()) {
+            if (setup.name.endsWith(" on Random data") && setup.ssort == null && setup.engine == null
+                    && !setup.name.startsWith("radix") && !setup.name.startsWith("counting")) {
+                pairs.add(setup);
+            }
+        }
+
+        Quick.TestSetup[][] choices = new Quick.TestSetup[BUCKET_LIMITS.length][DataProfile.values().length];
+        for (int b = 0; b < BUCKET_LIMITS.length; b++) {
+            int size = CALIBRATION_SIZES[b];
+            for (DataProfile profile : DataProfile.values()) {
+                // classify calls arrays this short random, so the other profiles are never looked up
+                if (size < 2 * PROFILE_SAMPLES && profile != DataProfile.RANDOM) {
+                    choices[b][profile.ordinal()] = choices[b][DataProfile.RANDOM.ordinal()];
+                    continue;
+                }
+                Quick.Generator gen = profile.generator();
+                int[] master = gen.generate(size);
+
+                /// Round 1: pivot picker x partitioner, on doubling sizes for the big buckets
+                List<Quick.TestSetup> alive = new ArrayList<>(pairs);
+                int screen = Math.min(size, SCREEN_SIZE);
+                while (true) {
+                    int[] data = screen == size ? master : gen.generate(screen);
+                    alive = fastest(alive, data, SCREEN_SLACK);
+                    if (screen == size) {
+                        break;
+                    }
+                    screen = Math.min(size, screen * 2);
+                }
+                Quick.TestSetup pair = alive.get(0);
+
+                /// Round 2: subsort thresholds for that pair
+                List<Quick.TestSetup> candidates = new ArrayList<>();
+                candidates.add(pair);
+                for (Quick.TestSetup setup : tests.values()) {
+                    if (setup.name.startsWith(pair.name + "+") && setup.name.endsWith(" once at end")) {
+                        candidates.add(setup);
+                    }
+                }
+                Quick.TestSetup best = fastest(candidates, master, 1.0).get(0);
+
+                /// Round 3: the pair's guarded and run-detecting engines
+                candidates = new ArrayList<>();
+                candidates.add(best);
+                for (String family : new String[]{" introsort", " adaptive"}) {
+                    Quick.TestSetup variant = tests.get(pair.name + family);
+                    if (variant != null) {
+                        candidates.add(variant);
+                    }
+                }
+                best = fastest(candidates, master, 1.0).get(0);
+
+                choices[b][profile.ordinal()] = best;
+                log.println(key(b, profile) + " = " + best.name);
+            }
+        }
+        return new AutoTuner(choices);
+    }
+
+    /**
+     * Time each candidate on data and keep those within slack times the fastest, fastest first.
+     * Candidates that don't sort correctly are dropped
+     */
+    private static List<Quick.TestSetup> fastest(List<Quick.TestSetup> candidates, int[] data, double slack) {
+        int[] reference = Arrays.copyOf(data, data.length);
+        Arrays.sort(reference);
+        int[] work = new int[data.length];
+        int sortsPerBatch = Math.max(1, BATCH_ELEMENTS / data.length);
+
+        Map<Quick.TestSetup, Long> times = new HashMap<>();
+        for (Quick.TestSetup setup : candidates) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            Quick.runSort(work, setup);
+            if (!Arrays.equals(work, reference)) {
+                continue;
+            }
+
+            long best = Long.MAX_VALUE;
+            for (int rep = 0; rep < REPS; rep++) {
+                long start = System.nanoTime();
+                for (int s = 0; s < sortsPerBatch; s++) {
+                    System.arraycopy(data, 0, work, 0, data.length);
+                    Quick.runSort(work, setup);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            times.put(setup, best);
+        }
+
+        long fastest = times.values().stream().min(Long::compare).orElseThrow();
+        List<Quick.TestSetup> kept = new ArrayList<>();
+        for (Quick.TestSetup setup : candidates) {
+            Long time = times.get(setup);
+            if (time != null && time <= fastest * slack) {
+                kept.add(setup);
+            }
+        }
+        kept.sort((a, b) -> Long.compare(times.get(a), times.get(b)));
+        return kept;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : DEFAULT_PROFILE);
+        AutoTuner tuner = calibrate(System.out);
+        tuner.save(file);
+        System.out.println("Wrote " + file);
+    }
+}
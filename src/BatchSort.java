@@ -0,0 +1,128 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts many small arrays at once, the way requests arrive in production: one array per request
+ * rather than one huge array. Arrays are either separate int[]s or segments of one flat int[]
+ * described by an offsets table. Groups of arrays are split across a work-stealing ForkJoinPool,
+ * and each array goes to insertion sort or to the setup's quicksort depending on its length.
+ */
+public class BatchSort {
+    /// Arrays up to this length are insertion sorted, whatever the setup says
+    static final int INSERTION_MAX = 32;
+    /// Elements below which a group of arrays is sorted on one thread instead of split further
+    static final int GRAIN = 1 << 14;
+
+    /**
+     * Sort every array in place
+     *
+     * @param arrays           Arrays to sort
+     * @param setup            Quicksort configuration for the arrays above INSERTION_MAX
+     * @param pool             Pool to run on
+     */
+    public static void sort(List<int[]> arrays, Quick.TestSetup setup, ForkJoinPool pool) {
+        int[][] all = arrays.toArray(new int[0][]);
+        long[] ends = new long[all.length + 1];
+        for (int i = 0; i < all.length; i++) {
+            ends[i + 1] = ends[i] + all[i].length;
+        }
+        pool.invoke(new ArraysTask(all, ends, 0, all.length, setup));
+    }
+
+    /**
+     * Sort every segment of a flat array in place.
+     * Segment k is [offsets[k], offsets[k + 1]), so offsets holds one more entry than there are segments
+     *
+     * @param data             Segments back to back
+     * @param offsets          Start of each segment, then the end of the last one
+     * @param setup            Quicksort configuration for the segments above INSERTION_MAX
+     * @param pool             Pool to run on
+     */
+    public static void sort(int[] data, int[] offsets, Quick.TestSetup setup, ForkJoinPool pool) {
+        pool.invoke(new SegmentsTask(data, offsets, 0, offsets.length - 1, setup));
+    }
+
+    /**
+     * Sort array[left..right] with insertion sort when short, otherwise with the setup's recursive quicksort
+     */
+    static void sortOne(int[] array, int left, int right, Quick.TestSetup setup) {
+        if (right - left < INSERTION_MAX) {
+            Quick.insertionSort(array, left, right);
+            return;
+        }
+        Quick.sort(array, left, right, setup);
+        if (setup.sortFinal) {
+            setup.ssort.sort(array, left, right);
+        }
+    }
+
+    /**
+     * Sorts arrays [from, to) of the batch, halving the group until it holds fewer than GRAIN elements
+     */
+    private static class ArraysTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] arrays;
+        /// Running total of lengths, ends[i] elements come before array i
+        private final long[] ends;
+        private final int from;
+        private final int to;
+        private final Quick.TestSetup setup;
+
+        ArraysTask(int[][] arrays, long[] ends, int from, int to, Quick.TestSetup setup) {
+            this.arrays = arrays;
+            this.ends = ends;
+            this.from = from;
+            this.to = to;
+            this.setup = setup;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && ends[to] - ends[from] >= GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ArraysTask(arrays, ends, from, mid, setup),
+                        new ArraysTask(arrays, ends, mid, to, setup));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                sortOne(arrays[i], 0, arrays[i].length - 1, setup);
+            }
+        }
+    }
+
+    /**
+     * Sorts segments [from, to) of a flat array, halving the group until it holds fewer than GRAIN elements
+     */
+    private static class SegmentsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] data;
+        private final int[] offsets;
+        private final int from;
+        private final int to;
+        private final Quick.TestSetup setup;
+
+        SegmentsTask(int[] data, int[] offsets, int from, int to, Quick.TestSetup setup) {
+            this.data = data;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+            this.setup = setup;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && offsets[to] - offsets[from] >= GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SegmentsTask(data, offsets, from, mid, setup),
+                        new SegmentsTask(data, offsets, mid, to, setup));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                sortOne(data, offsets[k], offsets[k + 1] - 1, setup);
+            }
+        }
+    }
+}
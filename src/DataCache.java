@@ -0,0 +1,158 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Test data shared between iterations and tests, so the timing loop doesn't allocate.
+ * Master datasets are generated once per (generator, size, seed) and kept up to MAX_CACHED_BYTES,
+ * least recently used first out. Sorts run on pooled work buffers refilled from the master with
+ * System.arraycopy, and results are checked against a sorted copy of the master made on first use.
+ */
+public class DataCache {
+    /// Upper bound on master + reference arrays held at once
+    static final long MAX_CACHED_BYTES = 256L << 20;
+
+    /**
+     * One generated array and, once asked for, its sorted copy
+     */
+    static final class Dataset {
+        public final int[] master;
+        private int[] reference;
+
+        Dataset(int[] master) {
+            this.master = master;
+        }
+
+        /**
+         * Sorted copy of master, made on first call and shared by every test using this dataset
+         */
+        public synchronized int[] reference() {
+            if (reference == null) {
+                int[] sorted = Arrays.copyOf(master, master.length);
+                Arrays.sort(sorted);
+                reference = sorted;
+            }
+            return reference;
+        }
+    }
+
+    private static final class Key {
+        final Quick.Generator gen;
+        final int size;
+        final long seed;
+
+        Key(Quick.Generator gen, int size, long seed) {
+            this.gen = gen;
+            this.size = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            // Generators are lambdas without equals, so the instance is the identity
+            return gen == other.gen && size == other.size && seed == other.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(gen), size, seed);
+        }
+    }
+
+    /// Access ordered, so iteration starts at the least recently used dataset
+    private static final LinkedHashMap<Key, Dataset> DATASETS = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes = 0;
+    /// Datasets being generated, so concurrent callers of one key share a single generator call
+    private static final Map<Key, CompletableFuture<Dataset>> PENDING = new ConcurrentHashMap<>();
+
+    /// Free work buffers by length
+    private static final Map<Integer, ConcurrentLinkedQueue<int[]>> BUFFERS = new ConcurrentHashMap<>();
+
+    /**
+     * Master dataset for one iteration of a test.
+     * Seeded generators give the same data for every iteration, so they share one dataset;
+     * anything else gets one dataset per iteration index, shared by all tests with that generator
+     */
+    static Dataset dataset(Quick.Generator gen, int size, int iteration) {
+        long seed = gen instanceof Generators.Seeded ? ((Generators.Seeded) gen).seed : iteration;
+        return dataset(new Key(gen, size, seed));
+    }
+
+    private static Dataset dataset(Key key) {
+        Dataset dataset = cached(key);
+        if (dataset != null) {
+            return dataset;
+        }
+
+        // Generate outside the cache lock, so parallel jobs only wait for a key someone is already generating
+        CompletableFuture<Dataset> created = new CompletableFuture<>();
+        CompletableFuture<Dataset> pending = PENDING.putIfAbsent(key, created);
+        if (pending != null) {
+            return pending.join();
+        }
+        try {
+            // Another thread may have finished this key between the lookup and putIfAbsent
+            dataset = cached(key);
+            if (dataset == null) {
+                dataset = new Dataset(key.gen.generate(key.size));
+                store(key, dataset);
+            }
+            created.complete(dataset);
+            return dataset;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            PENDING.remove(key, created);
+        }
+    }
+
+    private static synchronized Dataset cached(Key key) {
+        return DATASETS.get(key);
+    }
+
+    /**
+     * Add a dataset, evicting least recently used ones to stay under MAX_CACHED_BYTES
+     */
+    private static synchronized void store(Key key, Dataset dataset) {
+        long bytes = 2L * Integer.BYTES * key.size;
+        Iterator<Dataset> oldest = DATASETS.values().iterator();
+        while (cachedBytes + bytes > MAX_CACHED_BYTES && oldest.hasNext()) {
+            cachedBytes -= 2L * Integer.BYTES * oldest.next().master.length;
+            oldest.remove();
+        }
+        if (bytes <= MAX_CACHED_BYTES) {
+            DATASETS.put(key, dataset);
+            cachedBytes += bytes;
+        }
+    }
+
+    /**
+     * Take a work buffer of exactly size elements, filled with master
+     */
+    static int[] acquire(int[] master) {
+        ConcurrentLinkedQueue<int[]> free = BUFFERS.get(master.length);
+        int[] buffer = free == null ? null : free.poll();
+        if (buffer == null) {
+            buffer = new int[master.length];
+        }
+        System.arraycopy(master, 0, buffer, 0, master.length);
+        return buffer;
+    }
+
+    /**
+     * Hand a buffer from acquire back for reuse
+     */
+    static void release(int[] buffer) {
+        BUFFERS.computeIfAbsent(buffer.length, length -> new ConcurrentLinkedQueue<>()).offer(buffer);
+    }
+}
@@ -0,0 +1,282 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * External merge sort for int files that don't fit in memory.
+ * The input is read in runs of runSize ints, each run is sorted with the configured quicksort
+ * and spilled to a temp file, then the runs are merged with a k-way heap merge,
+ * in extra passes when there are more runs than MAX_FAN_IN.
+ * Files hold ints in MappedIntArray.ORDER.
+ */
+public class ExternalSort {
+    /// Bytes buffered per open run while merging, and for reading/writing runs
+    static final int IO_BUFFER_BYTES = 1 << 16;
+    /// Most runs merged at once, bounds open files and merge buffers
+    static final int MAX_FAN_IN = 128;
+
+    /**
+     * Sort a file of ints into another file
+     *
+     * @param input            File to sort
+     * @param output           File to write, replaced if it exists
+     * @param runSize          Ints sorted in memory per run
+     * @param setup            Quicksort configuration for sorting each run
+     * @param tempDir          Directory for run files
+     * @return number of runs spilled before merging
+     */
+    public static int sort(Path input, Path output, int runSize, Quick.TestSetup setup, Path tempDir) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        /// Runs written by the merge pass in progress, deleted along with runs if the pass fails
+        List<Path> merged = new ArrayList<>();
+        try {
+            spillRuns(input, runSize, setup, tempDir, runs);
+            int spilled = runs.size();
+
+            /// Merge groups of runs into longer runs until one pass can finish
+            while (runs.size() > MAX_FAN_IN) {
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    Path file = Files.createTempFile(tempDir, "run", ".ints");
+                    merged.add(file);
+                    merge(group, file);
+                }
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+                runs.clear();
+                runs.addAll(merged);
+                merged.clear();
+            }
+            merge(runs, output);
+            return spilled;
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            for (Path run : merged) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Read the input a run at a time, sort each run and write it to its own temp file
+     */
+    static void spillRuns(Path input, int runSize, Quick.TestSetup setup, Path tempDir, List<Path> runs) throws IOException {
+        int[] chunk = new int[runSize];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(MappedIntArray.ORDER);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (true) {
+                /// Fill the chunk
+                int count = 0;
+                while (count < runSize) {
+                    buffer.clear();
+                    // In long, runSize ints can be more bytes than an int holds
+                    buffer.limit((int) Math.min(buffer.capacity(), (long) (runSize - count) * Integer.BYTES));
+                    if (readFully(in, buffer) == 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    while (buffer.remaining() >= Integer.BYTES) {
+                        chunk[count++] = buffer.getInt();
+                    }
+                    // readFully only stops short at the end of the file, so leftover bytes are a partial int
+                    if (buffer.hasRemaining()) {
+                        throw new IOException(input + " ends with " + buffer.remaining()
+                                + " bytes, its length is not a whole number of ints");
+                    }
+                }
+                if (count == 0) {
+                    return;
+                }
+
+                /// Sort it; a short last run gets its own array so runSort sees only real data
+                int[] run = (count == runSize) ? chunk : Arrays.copyOf(chunk, count);
+                Quick.runSort(run, setup);
+
+                Path file = Files.createTempFile(tempDir, "run", ".ints");
+                runs.add(file);
+                writeRun(file, run, count, buffer);
+
+                if (count < runSize) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the channel ends
+     *
+     * @return bytes read
+     */
+    private static int readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void writeRun(Path file, int[] run, int count, ByteBuffer buffer) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            buffer.clear();
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush(out, buffer);
+                }
+                buffer.putInt(run[i]);
+            }
+            flush(out, buffer);
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Buffered reader over one sorted run
+     */
+    static final class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RunReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(MappedIntArray.ORDER);
+            buffer.flip();
+        }
+
+        /**
+         * @return true if another int is available
+         */
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= Integer.BYTES) {
+                return true;
+            }
+            buffer.compact();
+            readFully(channel, buffer);
+            buffer.flip();
+            return buffer.remaining() >= Integer.BYTES;
+        }
+
+        int next() {
+            return buffer.getInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Merge sorted runs into the output with a binary min-heap of (value, run) held in two int arrays
+     */
+    static void merge(List<Path> runs, Path output) throws IOException {
+        int k = runs.size();
+        RunReader[] readers = new RunReader[k];
+        int[] heapValues = new int[k];
+        int[] heapRuns = new int[k];
+        int size = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(MappedIntArray.ORDER);
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            /// Prime the heap with the head of every run
+            for (int r = 0; r < k; r++) {
+                readers[r] = new RunReader(runs.get(r));
+                if (readers[r].hasNext()) {
+                    heapValues[size] = readers[r].next();
+                    heapRuns[size] = r;
+                    siftUp(heapValues, heapRuns, size);
+                    size++;
+                }
+            }
+
+            /// Pop the smallest head, refill from its run
+            while (size > 0) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush(out, buffer);
+                }
+                buffer.putInt(heapValues[0]);
+
+                int r = heapRuns[0];
+                if (readers[r].hasNext()) {
+                    heapValues[0] = readers[r].next();
+                } else {
+                    size--;
+                    heapValues[0] = heapValues[size];
+                    heapRuns[0] = heapRuns[size];
+                }
+                siftDown(heapValues, heapRuns, 0, size);
+            }
+            flush(out, buffer);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftUp(int[] values, int[] runs, int i) {
+        int value = values[i];
+        int run = runs[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (values[parent] <= value) {
+                break;
+            }
+            values[i] = values[parent];
+            runs[i] = runs[parent];
+            i = parent;
+        }
+        values[i] = value;
+        runs[i] = run;
+    }
+
+    private static void siftDown(int[] values, int[] runs, int i, int size) {
+        if (size == 0) {
+            return;
+        }
+        int value = values[i];
+        int run = runs[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            // Pick the smaller child
+            if (child + 1 < size && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (values[child] >= value) {
+                break;
+            }
+            values[i] = values[child];
+            runs[i] = runs[child];
+            i = child;
+        }
+        values[i] = value;
+        runs[i] = run;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded data generators that fill large arrays in parallel.
+ * The array is cut into fixed chunks and each chunk gets its own SplittableRandom derived from
+ * (seed, chunk index), so the output depends only on seed and size, never on the thread count
+ * or the machine. Covers the shapes we see in production next to plain uniform data.
+ */
+public class Generators {
+    /// Elements per independently seeded chunk; also the unit of parallel work
+    static final int CHUNK = 1 << 16;
+
+    /**
+     * Fills [from, to) of a chunk with its own random stream
+     */
+    interface ChunkFiller {
+        void fill(int[] arr, int from, int to, SplittableRandom rand);
+    }
+
+    /**
+     * A Generator that is reproducible from its seed
+     */
+    static final class Seeded implements Quick.Generator {
+        public final String name;
+        public final long seed;
+        private final int chunk;
+        private final ChunkFiller filler;
+
+        Seeded(String name, long seed, int chunk, ChunkFiller filler) {
+            this.name = name;
+            this.seed = seed;
+            this.chunk = chunk;
+            this.filler = filler;
+        }
+
+        @Override
+        public int[] generate(int size) {
+            int[] arr = new int[size];
+            int chunks = (size + chunk - 1) / chunk;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int from = c * chunk;
+                int to = Math.min(size, from + chunk);
+                filler.fill(arr, from, to, new SplittableRandom(Quick.mix64(seed + 0x9E3779B97F4A7C15L * (c + 1))));
+            });
+            return arr;
+        }
+    }
+
+    /**
+     * Uniform values in [min, max)
+     */
+    static Seeded uniform(int min, int max, long seed) {
+        return new Seeded("Uniform", seed, CHUNK, (arr, from, to, rand) -> {
+            for (int i = from; i < to; i++) {
+                arr[i] = rand.nextInt(min, max);
+            }
+        });
+    }
+
+    /**
+     * 0..size-1 ascending with roughly percent% of the elements replaced by random values
+     */
+    static Seeded sortedWithNoise(int percent, long seed) {
+        return new Seeded("Sorted+" + percent + "% noise", seed, CHUNK, (arr, from, to, rand) -> {
+            int size = arr.length;
+            for (int i = from; i < to; i++) {
+                arr[i] = rand.nextInt(100) < percent ? rand.nextInt(size) : i;
+            }
+        });
+    }
+
+    /**
+     * Ascending to the middle, then descending back down
+     */
+    static Seeded organPipe(long seed) {
+        return new Seeded("Organ pipe", seed, CHUNK, (arr, from, to, rand) -> {
+            int size = arr.length;
+            for (int i = from; i < to; i++) {
+                arr[i] = i < size / 2 ? i : size - 1 - i;
+            }
+        });
+    }
+
+    /**
+     * Repeated ascending ramps 0..period-1
+     */
+    static Seeded sawtooth(int period, long seed) {
+        return new Seeded("Sawtooth " + period, seed, CHUNK, (arr, from, to, rand) -> {
+            for (int i = from; i < to; i++) {
+                arr[i] = i % period;
+            }
+        });
+    }
+
+    /**
+     * Values 0..distinct-1 where value k turns up with weight 1/(k+1)^exponent,
+     * so a handful of values make up most of the array
+     */
+    static Seeded zipfian(int distinct, double exponent, long seed) {
+        double[] cdf = new double[distinct];
+        double total = 0;
+        for (int k = 0; k < distinct; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < distinct; k++) {
+            cdf[k] /= total;
+        }
+
+        return new Seeded("Zipfian " + distinct, seed, CHUNK, (arr, from, to, rand) -> {
+            for (int i = from; i < to; i++) {
+                int k = Arrays.binarySearch(cdf, rand.nextDouble());
+                arr[i] = Math.min(k < 0 ? -k - 1 : k, distinct - 1);
+            }
+        });
+    }
+
+    /**
+     * Back to back ascending runs of runLength random values.
+     * Each run is one chunk, so the run boundaries don't move with the chunk size
+     */
+    static Seeded sortedRuns(int runLength, long seed) {
+        return new Seeded(runLength + " element runs", seed, runLength, (arr, from, to, rand) -> {
+            for (int i = from; i < to; i++) {
+                arr[i] = rand.nextInt();
+            }
+            Arrays.sort(arr, from, to);
+        });
+    }
+}
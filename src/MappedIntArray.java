@@ -0,0 +1,95 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file of ints mapped into memory, indexed with longs.
+ * A single MappedByteBuffer is limited to 2 GiB, so the file is mapped as a row of
+ * fixed size segments and an index picks the segment with its high bits.
+ * Pages are loaded and written back by the OS, so the file can be larger than the heap or RAM.
+ */
+public class MappedIntArray implements AutoCloseable {
+    /// Byte order of int files read and written by the sorts
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /// 2^28 ints (1 GiB) per mapped segment
+    static final int SEGMENT_SHIFT = 28;
+    static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+    static final int SEGMENT_MASK = SEGMENT_INTS - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] mapped;
+    private final IntBuffer[] segments;
+    private final long length;
+
+    /**
+     * Map every int in a file
+     *
+     * @param file             File holding length * 4 bytes
+     * @param writable         Map read-write so the file can be sorted in place
+     */
+    public MappedIntArray(Path file, boolean writable) throws IOException {
+        this.channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        this.length = channel.size() / Integer.BYTES;
+
+        int count = (int) ((length + SEGMENT_INTS - 1) >>> SEGMENT_SHIFT);
+        this.mapped = new MappedByteBuffer[count];
+        this.segments = new IntBuffer[count];
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int s = 0; s < count; s++) {
+            long first = (long) s << SEGMENT_SHIFT;
+            long ints = Math.min(SEGMENT_INTS, length - first);
+            mapped[s] = channel.map(mode, first * Integer.BYTES, ints * Integer.BYTES);
+            mapped[s].order(ORDER);
+            segments[s] = mapped[s].asIntBuffer();
+        }
+    }
+
+    /**
+     * @return number of ints in the file
+     */
+    public long length() {
+        return length;
+    }
+
+    public int get(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) index & SEGMENT_MASK);
+    }
+
+    public void set(long index, int value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) index & SEGMENT_MASK, value);
+    }
+
+    /**
+     * Swap helper
+     */
+    public void swap(long a, long b) {
+        int temp = get(a);
+        set(a, get(b));
+        set(b, temp);
+    }
+
+    /**
+     * Write dirty pages back to the file
+     */
+    public void force() {
+        for (MappedByteBuffer buffer : mapped) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Close the channel. The mappings stay valid until the buffers are garbage collected,
+     * Java 11 has no supported way to unmap them early
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Quicksort over a memory-mapped file of ints.
+ * The pivot pickers, partitioners and insertion sort from Quick are ported to MappedIntArray
+ * with long indexes, and the sort is iterative so depth doesn't grow with the file.
+ * Nothing is copied through the heap.
+ */
+public class MappedSort {
+    /**
+     * Interface to pick a pivot for quicksort
+     */
+    interface PivotPicker {
+        long getPivot(MappedIntArray arr, long left, long right);
+    }
+
+    /**
+     * Interface to function that partitions array around array[pivot]
+     * and returns the new position of the pivot value after partitioning
+     */
+    interface Partitioner {
+        long partition(MappedIntArray array, long left, long right, long pivot);
+    }
+
+    /**
+     * Interface to hold another sorting function
+     * to use on runs of the array under a certain size
+     */
+    interface Subsort {
+        void sort(MappedIntArray arr, long left, long right);
+    }
+
+    /**
+     * Data class for holding sort configuration
+     */
+    static class Setup {
+        public PivotPicker pivp;
+        public Partitioner part;
+        public long sst;
+        public Subsort ssort;
+
+        public Setup(PivotPicker pp, Partitioner pt, long sst, Subsort ss) {
+            this.pivp = pp;
+            this.part = pt;
+            this.sst = sst;
+            this.ssort = ss;
+        }
+    }
+
+    /// Median of three + hoare + insertion sort below 16
+    public static final Setup DEFAULT = new Setup(MappedSort::medianOfThree, MappedSort::partition_Hoare, 16, MappedSort::insertionSort);
+
+    /**
+     * Sort a file of ints in place
+     *
+     * @param file             File of little endian ints
+     * @param setup            Configuration for sort
+     */
+    public static void sortFile(Path file, Setup setup) throws IOException {
+        try (MappedIntArray array = new MappedIntArray(file, true)) {
+            sort(array, setup);
+            array.force();
+        }
+    }
+
+    /**
+     * Write a file of count ints in range [min, max) using the given seed
+     */
+    public static void writeRandomFile(Path file, long count, int min, int max, long seed) throws IOException {
+        Random rand = new Random(seed);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(MappedIntArray.ORDER);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long i = 0; i < count; i++) {
+                buffer.putInt(min + rand.nextInt(max - min));
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return index of the first element smaller than the one before it, or -1 if sorted
+     */
+    public static long findUnsorted(MappedIntArray array) {
+        for (long k = 1; k < array.length(); k++) {
+            if (array.get(k) < array.get(k - 1)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Quicksort without recursion, see Quick.sortIterative
+     *
+     * @param array            Mapped ints to sort
+     * @param setup            Configuration for sort
+     */
+    public static void sort(MappedIntArray array, Setup setup) {
+        // Two longs per pending range, the smaller side is always sorted first
+        long[] stack = new long[2 * 64];
+        int top = 0;
+
+        long left = 0;
+        long right = array.length() - 1;
+        while (true) {
+            long span = right - left;
+            boolean done = true;
+            if (span < 1) {
+                // Span of one element, trivially sorted
+            } else if (span < 2) {
+                // Span of two elements, may need one swap
+                if (array.get(left) > array.get(right)) {
+                    array.swap(left, right);
+                }
+            } else if (span <= setup.sst && setup.ssort != null) {
+                setup.ssort.sort(array, left, right);
+            } else {
+                done = false;
+            }
+
+            if (done) {
+                /// Range is done, pop the next one
+                if (top == 0) {
+                    return;
+                }
+                right = stack[--top];
+                left = stack[--top];
+                continue;
+            }
+
+            long pivot = setup.pivp.getPivot(array, left, right);
+            long p = setup.part.partition(array, left, right, pivot);
+
+            /// Push the larger side, keep going on the smaller
+            if (p - left < right - p) {
+                stack[top++] = p + 1;
+                stack[top++] = right;
+                right = p - 1;
+            } else {
+                stack[top++] = left;
+                stack[top++] = p - 1;
+                left = p + 1;
+            }
+        }
+    }
+
+    /**
+     * Pivot function that always picks middlemost item as pivot
+     */
+    public static long alwaysPickMiddle(MappedIntArray arr, long left, long right) {
+        return (left + right) >>> 1;
+    }
+
+    /**
+     * Pivot function that picks the median between left/right/middle
+     */
+    public static long medianOfThree(MappedIntArray arr, long left, long right) {
+        long mid = (right + left) >>> 1;
+
+        if (arr.get(right) < arr.get(left)) {
+            arr.swap(left, right);
+        }
+        if (arr.get(mid) < arr.get(left)) {
+            arr.swap(mid, left);
+        }
+        if (arr.get(right) < arr.get(mid)) {
+            arr.swap(right, mid);
+        }
+
+        return mid;
+    }
+
+    /**
+     * Insertion sort subsort
+     */
+    public static void insertionSort(MappedIntArray arr, long left, long right) {
+        for (long i = left + 1; i <= right; i++) {
+            int value = arr.get(i);
+            long k = i;
+            for (; k > left && arr.get(k - 1) > value; k--) {
+                arr.set(k, arr.get(k - 1));
+            }
+            arr.set(k, value);
+        }
+    }
+
+    public static long partition_Lomuto(MappedIntArray array, long left, long right, long pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        array.swap(left, pivot);
+
+        int p = array.get(left);
+        long s = left;
+
+        for (long i = left + 1; i <= right; i++) {
+            if (array.get(i) < p) {
+                s = s + 1;
+                array.swap(s, i);
+            }
+        }
+        array.swap(left, s);
+        return s;
+    }
+
+    public static long partition_Hoare(MappedIntArray array, long left, long right, long pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        array.swap(left, pivot);
+
+        int p = array.get(left);
+        long i = left;
+        long j = right + 1;
+
+        while (true) {
+            // Walk i right to the first value not less than the pivot
+            while (array.get(++i) < p) {
+                if (i == right) {
+                    break;
+                }
+            }
+            // Walk j left to the first value not greater than the pivot, array[left] stops it
+            while (p < array.get(--j)) {
+            }
+            if (i >= j) {
+                break;
+            }
+            array.swap(i, j);
+        }
+
+        array.swap(left, j);
+        return j;
+    }
+}
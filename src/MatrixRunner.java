@@ -0,0 +1,233 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs a list of tests, several at once.
+ * Each test runs start to finish on one worker, either a thread in this JVM or a fresh worker JVM
+ * (so JIT profiles and GC of one test can't leak into another). Results come back as the same
+ * TestResult objects, in test order. Every result records how much of its wall time the sorting
+ * thread spent off CPU, so interference from neighbouring jobs shows up next to the timings.
+ *
+ * Options: --jobs N (default 1) and --isolation threads|jvm (default threads).
+ */
+public class MatrixRunner {
+    enum Isolation {
+        THREADS, JVM
+    }
+
+    /// Prefix of result lines printed by worker JVMs
+    static final String RESULT_PREFIX = "RESULT ";
+    /// Prefix of metrics lines printed by worker JVMs when SortMetrics is on
+    static final String METRICS_PREFIX = "METRICS ";
+
+    private final int jobs;
+    private final Isolation isolation;
+
+    public MatrixRunner(int jobs, Isolation isolation) {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("jobs must be at least 1, got " + jobs);
+        }
+        this.jobs = jobs;
+        this.isolation = isolation;
+    }
+
+    /**
+     * Build a runner from command line options, ignoring anything else
+     */
+    static MatrixRunner fromArgs(String[] args) {
+        int jobs = 1;
+        Isolation isolation = Isolation.THREADS;
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--jobs")) {
+                jobs = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--isolation")) {
+                isolation = Isolation.valueOf(args[i + 1].toUpperCase());
+            }
+        }
+        return new MatrixRunner(jobs, isolation);
+    }
+
+    /**
+     * Run every test
+     *
+     * @param tests            Tests to run, as returned by Quick.getTests()
+     * @param sizes            Data array sizes to run
+     * @param numIterations    Number of reps for each size
+     * @return one result per test, in the same order
+     */
+    public List<Quick.TestResult> run(List<Quick.TestSetup> tests, int[] sizes, int numIterations) {
+        return run(tests, sizes, numIterations, result -> { });
+    }
+
+    /**
+     * Run every test, handing each result to onFinished as soon as it completes.
+     * With several jobs onFinished is called from the runner threads, in completion order
+     *
+     * @param tests            Tests to run, as returned by Quick.getTests()
+     * @param sizes            Data array sizes to run
+     * @param numIterations    Number of reps for each size
+     * @param onFinished       Called once per finished test
+     * @return one result per test, in the same order
+     */
+    public List<Quick.TestResult> run(List<Quick.TestSetup> tests, int[] sizes, int numIterations,
+                                      Consumer<Quick.TestResult> onFinished) {
+        List<Quick.TestResult> results = new ArrayList<>(tests.size());
+
+        /// Serial in-process run needs no pool
+        if (jobs == 1 && isolation == Isolation.THREADS) {
+            for (Quick.TestSetup setup : tests) {
+                Quick.TestResult result = Quick.runTest(setup, sizes, numIterations);
+                printFinished(setup);
+                onFinished.accept(result);
+                results.add(result);
+            }
+            return results;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        try {
+            List<Future<Quick.TestResult>> pending = new ArrayList<>(tests.size());
+            for (Quick.TestSetup setup : tests) {
+                pending.add(pool.submit(() -> {
+                    Quick.TestResult result;
+                    if (isolation == Isolation.JVM) {
+                        result = runInWorker(setup, sizes, numIterations);
+                    } else {
+                        result = Quick.runTest(setup, sizes, numIterations);
+                        printFinished(setup);
+                    }
+                    onFinished.accept(result);
+                    return result;
+                }));
+            }
+
+            for (Future<Quick.TestResult> result : pending) {
+                results.add(result.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    private static void printFinished(Quick.TestSetup setup) {
+        System.out.println("Finished Test " + setup.name);
+        if (setup.engine instanceof Quick.IntroSort) {
+            System.out.println("\tHeapsort fallbacks: " + ((Quick.IntroSort) setup.engine).fallbacks);
+        }
+        if (setup.engine instanceof Quick.AdaptiveSort) {
+            System.out.println("\tSorts finished by merging runs: " + ((Quick.AdaptiveSort) setup.engine).merged);
+        }
+    }
+
+    /**
+     * Run one test in a new JVM with the same classpath and JVM options as this one.
+     * The worker finds the test in its own getTests() by name
+     */
+    private static Quick.TestResult runInWorker(Quick.TestSetup setup, int[] sizes, int numIterations)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MatrixRunner.class.getName());
+        command.add("--worker");
+        command.add(setup.name);
+        command.add(Integer.toString(numIterations));
+        for (int size : sizes) {
+            command.add(Integer.toString(size));
+        }
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        Quick.TestResult result = new Quick.TestResult();
+        result.setup = setup;
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    parseResultLine(line, result);
+                } else if (line.startsWith(METRICS_PREFIX)) {
+                    result.metrics.add(SortMetrics.Snapshot.parse(line.substring(METRICS_PREFIX.length())));
+                } else {
+                    // Pass through progress and error output
+                    System.out.println(line);
+                }
+            }
+        }
+
+        int exit = process.waitFor();
+        if (exit != 0 || result.dataSize.size() != sizes.length) {
+            throw new RuntimeException("Worker for test " + setup.name + " exited with " + exit);
+        }
+        return result;
+    }
+
+    /**
+     * Parse "RESULT size noise duration..." into the next size of result
+     */
+    private static void parseResultLine(String line, Quick.TestResult result) {
+        String[] parts = line.substring(RESULT_PREFIX.length()).split(" ");
+        List<Long> durations = new ArrayList<>(parts.length - 2);
+        long total = 0;
+        for (int i = 2; i < parts.length; i++) {
+            long duration = Long.parseLong(parts[i]);
+            durations.add(duration);
+            total += duration;
+        }
+
+        result.dataSize.add(Integer.parseInt(parts[0]));
+        result.noise.add(Double.parseDouble(parts[1]));
+        result.durations.add(durations);
+        result.averageDuration.add(durations.isEmpty() ? 0 : total / durations.size());
+    }
+
+    /**
+     * Worker JVM entry: --worker testName numIterations size...
+     * Prints one result line per size, and one metrics line per size when SortMetrics is on
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || !args[0].equals("--worker")) {
+            throw new IllegalArgumentException("Usage: MatrixRunner --worker testName numIterations size...");
+        }
+        String name = args[1];
+        int numIterations = Integer.parseInt(args[2]);
+        int[] sizes = new int[args.length - 3];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Integer.parseInt(args[i + 3]);
+        }
+
+        Quick.TestSetup setup = Quick.findTest(name);
+        Quick.TestResult result = Quick.runTest(setup, sizes, numIterations);
+        printFinished(setup);
+
+        for (int i = 0; i < result.dataSize.size(); i++) {
+            StringBuilder line = new StringBuilder(RESULT_PREFIX);
+            line.append(result.dataSize.get(i)).append(' ').append(result.noise.get(i));
+            for (long duration : result.durations.get(i)) {
+                line.append(' ').append(duration);
+            }
+            System.out.println(line);
+        }
+        for (SortMetrics.Snapshot metrics : result.metrics) {
+            System.out.println(METRICS_PREFIX + metrics);
+        }
+    }
+}
@@ -1,10 +1,14 @@
-import java.nio.file.Files;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class Quick {
     /**
@@ -19,12 +23,27 @@ public class Quick {
      * is moved so that:
      * if it is less than the pivot value (array[pivot]) is placed in a lower index
      * if it is greater than the pivot value (array[pivot]) it is placed in a higher index
-     * and returns the new position of the pivot value after partitioning
+     * and returns the new position of the pivot value after partitioning.
+     * Only array[left..right] may be read or written: parallel engines partition neighbouring regions at once
      */
     interface Partitioner {
         int partition(int[] array, int left, int right, int pivot);
     }
 
+    /**
+     * Interface to a partition function that places a range of the array instead of a single pivot.
+     * Returns lo and hi packed with packRange, such that after partitioning:
+     * elements in [left, lo) are no greater than array[lo]
+     * elements in [lo, hi] are between array[lo] and array[hi]
+     * elements in (hi, right] are no less than array[hi]
+     * and array[lo] and array[hi] are in their final positions.
+     * When array[lo] == array[hi] the whole [lo, hi] range is final.
+     * As with Partitioner, only array[left..right] may be read or written.
+     */
+    interface RangePartitioner {
+        long partition(int[] array, int left, int right, int pivot);
+    }
+
     /**
      * Interface to hold another sorting function
      * to use on runs of the array under a certain size
@@ -41,6 +60,23 @@ public class Quick {
         int[] generate(int size);
     }
 
+    /**
+     * Interface to a whole-array sorting mode.
+     * Engines drive the pivot picker, partitioner and subsort of a TestSetup
+     * in a different way than the plain recursive quicksort
+     */
+    interface Engine {
+        void sort(int[] array, TestSetup setup);
+
+        /**
+         * False if the engine hands work to other threads, so the calling thread's CPU time
+         * doesn't say how much of the wall time was lost to neighbouring work
+         */
+        default boolean singleThreaded() {
+            return true;
+        }
+    }
+
     /**
      * Data class for holding test configuration
      */
@@ -48,10 +84,12 @@ public class Quick {
         public String name;
         public PivotPicker pivp;
         public Partitioner part;
+        public RangePartitioner rpart;
         public int sst;
         public Subsort ssort;
         public boolean sortFinal;
         public Generator gen;
+        public Engine engine;
 
         public TestSetup(String name, PivotPicker pp, Partitioner pt) {
             this(name, pp, pt, -1, null, null);
@@ -72,6 +110,8 @@ public class Quick {
 
         public TestSetup(TestSetup original, String newName) {
             this(newName, original.pivp, original.part, original.sst, original.ssort, original.gen);
+            this.rpart = original.rpart;
+            this.engine = original.engine;
         }
     }
 
@@ -83,11 +123,18 @@ public class Quick {
         public List<Integer> dataSize;
         public List<Long> averageDuration;
         public List<List<Long>> durations;
+        /// Share of wall time the sorting thread was not on a CPU, per size, NaN for engines
+        /// that sort on other threads
+        public List<Double> noise;
+        /// Average counters per sort for each size, only filled when SortMetrics.ENABLED
+        public List<SortMetrics.Snapshot> metrics;
 
         public TestResult() {
             dataSize = new ArrayList<>();
             averageDuration = new ArrayList<>();
             durations = new ArrayList<>();
+            noise = new ArrayList<>();
+            metrics = new ArrayList<>();
         }
     }
 
@@ -103,117 +150,127 @@ public class Quick {
                 // these big ones choke out the really bad sorts (always pivot on left/right)
                 //5000, 10000, 15000, 20000
         };
-        List<TestResult> results = new ArrayList(tests.size());
         /// Number of reps for each test
         int numIterations = 10;
 
-        /// Loop over each test setup
-        for (TestSetup setup : tests) {
-            TestResult result = new TestResult();
-            result.setup = setup;
-
-            /// Run each size
-            for (int dataSize : sizes) {
-
-                /// All durations for this size
-                List<Long> durations = new ArrayList(numIterations);
-                /// Sum of durations for average
-                long totalDuration = 0;
-
-                /// Run test iterations and average for stability
-                for (int i = 0; i < numIterations; i++) {
-                    /// Generate new test data
-                    int[] testArray = setup.gen.generate(dataSize); // generateArray(100, 999, dataSize);
-                    int[] orig = Arrays.copyOf(testArray, testArray.length);
-
-                    //System.out.println("\n\n\nGenerated new array");
-                    //printArray(testArray);
+        /// Run the matrix, serially unless args ask for more jobs, streaming each result to
+        /// out.csv and out.jsonl as soon as it finishes
+        try (ResultReporter csv = ResultReporter.csv(Path.of("./out.csv"), sizes);
+             ResultReporter jsonLines = ResultReporter.jsonLines(Path.of("./out.jsonl"))) {
+            MatrixRunner.fromArgs(args).run(tests, sizes, numIterations, result -> {
+                csv.report(result);
+                jsonLines.report(result);
+                System.out.println("Result for " + result.dataSize + ": " + result.setup.name + ": "
+                        + result.averageDuration + "ns" + ", noise " + result.noise);
+            });
+        }
+    }
 
+    /**
+     * Run every size of one test
+     *
+     * @param setup            Test to run
+     * @param sizes            Data array sizes to run
+     * @param numIterations    Number of reps for each size
+     * @return durations of every rep, averages and noise per size
+     */
+    static TestResult runTest(TestSetup setup, int[] sizes, int numIterations) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        TestResult result = new TestResult();
+        result.setup = setup;
+
+        /// Run each size
+        for (int dataSize : sizes) {
+
+            /// All durations for this size
+            List<Long> durations = new ArrayList<>(numIterations);
+            /// Sum of durations for average
+            long totalDuration = 0;
+            /// Sum of CPU time the sorting thread got during those durations
+            long totalCpu = 0;
+            /// Sum of counters over the iterations
+            SortMetrics.Snapshot totalMetrics = new SortMetrics.Snapshot();
+
+            /// Run test iterations and average for stability
+            for (int i = 0; i < numIterations; i++) {
+                /// Fetch this iteration's data and copy it into a pooled buffer
+                DataCache.Dataset dataset = DataCache.dataset(setup.gen, dataSize, i);
+                int[] testArray = DataCache.acquire(dataset.master);
+
+                //System.out.println("\n\n\nGenerated new array");
+                //printArray(testArray);
+
+
+                if (SortMetrics.ENABLED) {
+                    SortMetrics.reset();
+                }
 
-                    // Run sort and only time the sort
-                    long start = System.nanoTime();
-                    sort(testArray, setup);
-                    if (setup.sortFinal) {
-                        setup.ssort.sort(testArray, 0, testArray.length-1);
-                    }
-                    long end = System.nanoTime();
-
-                    long duration = end - start;
-                    totalDuration += duration;
-                    durations.add(duration);
-
-                    // Check for errors and print out of order elements for testing
-                    try {
-                        for (int k = 1; k < testArray.length; k++) {
-                            if (testArray[k] < testArray[k - 1]) {
-                                throw new RuntimeException("During test " + setup.name +
-                                        "\n\tElements "
-                                        + " array[" + k + "] = " + testArray[k]
-                                        + " array[" + (k - 1) + "] = " + testArray[k - 1]
-                                        + " are out of order ");
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.out.println(e);
-                        System.out.println("Array was ");
-                        printArray(orig);
-                        System.out.println("Array is ");
-                        printArray(testArray);
-                    }
+                // Run sort and only time the sort
+                long cpuStart = threadBean.getCurrentThreadCpuTime();
+                long start = System.nanoTime();
+                runSort(testArray, setup);
+                long end = System.nanoTime();
+                long cpuEnd = threadBean.getCurrentThreadCpuTime();
+
+                long duration = end - start;
+                totalDuration += duration;
+                totalCpu += cpuEnd - cpuStart;
+                durations.add(duration);
+                if (SortMetrics.ENABLED) {
+                    totalMetrics.add(SortMetrics.snapshot());
+                }
 
+                // Check against the sorted reference, which also catches lost or duplicated elements
+                int[] reference = dataset.reference();
+                int k = Arrays.mismatch(testArray, reference);
+                if (k >= 0) {
+                    System.out.println(new RuntimeException("During test " + setup.name +
+                            "\n\tElement array[" + k + "] = " + testArray[k]
+                            + " should be " + reference[k]));
+                    System.out.println("Array was ");
+                    printArray(dataset.master);
+                    System.out.println("Array is ");
+                    printArray(testArray);
                 }
+                DataCache.release(testArray);
 
-                /// Record the result for the current size
-                result.dataSize.add(dataSize);
-                result.durations.add(durations);
-                result.averageDuration.add(totalDuration / numIterations);
             }
 
-            System.out.println("Finished Test " + setup.name);
-            results.add(result);
-
-        }
-
-        //////////////////////////
-        /// Create output file
-
-        /// Write a header to the file
-        StringBuilder str = new StringBuilder();
-        str.append("Name");
-        for (int size : sizes) {
-            str.append(", Size of ");
-            str.append(size);
-        }
-        str.append('\n');
-
-        /// Write each result to a row
-        for (TestResult result : results) {
-            str.append(result.setup.name);
-            for (int i = 0; i < result.dataSize.size(); i++) {
-                str.append(',');
-                str.append(result.averageDuration.get(i));
+            /// Record the result for the current size
+            result.dataSize.add(dataSize);
+            result.durations.add(durations);
+            result.averageDuration.add(totalDuration / numIterations);
+            // Time off CPU is time lost to neighbouring work, unless the engine was waiting on its own pool
+            if (setup.engine != null && !setup.engine.singleThreaded()) {
+                result.noise.add(Double.NaN);
+            } else {
+                result.noise.add(totalDuration == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) totalCpu / totalDuration));
+            }
+            if (SortMetrics.ENABLED) {
+                totalMetrics.divide(numIterations);
+                result.metrics.add(totalMetrics);
             }
-            str.append('\n');
-            System.out.println("Result for " + result.dataSize + ": " + result.setup.name + ": " + result.averageDuration + "ns");
         }
 
-        /// Write the CSV to a file
-        try {
-            Path target = Path.of("./out.csv");
-            /// Delete existing file
-            Files.delete(target);
-
-            /// Write all text to file and close
-            Files.writeString(target, str.toString(),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.WRITE);
+        return result;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    /**
+     * Find a test from getTests() by name, for harnesses running outside of main
+     *
+     * @param name             Name as written in the first column of out.csv
+     * @return matching test setup
+     */
+    static TestSetup findTest(String name) {
+        for (TestSetup setup : getTests()) {
+            if (setup.name.equals(name)) {
+                return setup;
+            }
         }
+        throw new IllegalArgumentException("No test named " + name);
     }
 
-    private static List<TestSetup> getTests() {
+    static List<TestSetup> getTests() {
         /// Short names for method references + data for generating test variants
         PivotPicker middlePiv = Quick::alwaysPickMiddle;
 
@@ -221,26 +278,52 @@ public class Quick {
         PivotPicker leftPiv = Quick::alwaysPickLeftmost;
         PivotPicker rightPiv = Quick::alwaysPickRightmost;
         PivotPicker motPiv = Quick::medianOfThree;
-        PivotPicker[] pivots = {leftPiv, middlePiv, rightPiv, motPiv};
-        String[] pivotNames = {"Always Pick Leftmost", "Always Pick Middle", "Always Pick Rightmost", "Median Of Three"};
+        PivotPicker nintherPiv = Quick::ninther;
+        PivotPicker randomPiv = seededRandomPivot(0xDEADBEEFL);
+        PivotPicker mokPiv = Quick::medianOfK;
+        PivotPicker adaptivePiv = Quick::adaptivePivot;
+        PivotPicker[] pivots = {leftPiv, middlePiv, rightPiv, motPiv, nintherPiv, randomPiv, mokPiv, adaptivePiv};
+        String[] pivotNames = {"Always Pick Leftmost", "Always Pick Middle", "Always Pick Rightmost", "Median Of Three",
+                "Ninther", "Seeded Random", "Median Of K", "Adaptive"};
 
         // Partitioning methods
         Partitioner jonPart = (array, left, right, pivot) -> partition_Jon(array, left, right, pivot);
         Partitioner lomutoPart = Quick::partition_Lomuto;
         Partitioner hoarePart = Quick::partition_Hoare;
-        Partitioner[] partitioners = {lomutoPart, hoarePart};
-        String[] partNames = {"lomuto", "hoare"};
+        Partitioner hoareHolePart = Quick::partition_HoareHole;
+        Partitioner lomutoHolePart = Quick::partition_LomutoHole;
+        Partitioner lomutoBranchlessPart = Quick::partition_LomutoBranchless;
+        Partitioner laneBlockPart = Quick::partition_LaneBlock;
+        Partitioner blockPart = Quick::partition_Block;
+        Partitioner[] partitioners = {lomutoPart, hoarePart, hoareHolePart, lomutoHolePart, lomutoBranchlessPart, laneBlockPart,
+                blockPart};
+        String[] partNames = {"lomuto", "hoare", "hoare hole", "lomuto hole", "lomuto branchless", "lane block", "block"};
+        RangePartitioner threeWayPart = Quick::partition_ThreeWay;
+        RangePartitioner dualPivotPart = Quick::partition_DualPivot;
+        RangePartitioner[] rangePartitioners = {threeWayPart, dualPivotPart};
+        String[] rangePartNames = {"three-way", "dual pivot"};
 
         // Subsort methods and sizes
         Subsort insertionSub = Quick::insertionSort;
-        Subsort[] subsorts = {insertionSub};
-        String[] subsortNames = {"insertion"};
+        Subsort radixSub = Quick::radixSortLsd;
+        Subsort countingSub = Quick::countingSort;
+        Subsort[] subsorts = {insertionSub, radixSub, countingSub};
+        String[] subsortNames = {"insertion", "radix", "counting"};
         List<Integer> sizes = new ArrayList<>();
         for (int i = 3; i < 128; i = 1 + (int) (i * 1.45)) {
             sizes.add(i);
         }
         Integer[] subsortSizes = sizes.toArray(new Integer[sizes.size()]);
 
+        // Parallel thread counts and the span below which parallel sorts recurse sequentially
+        List<Integer> threadCounts = new ArrayList<>();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < cores; i *= 2) {
+            threadCounts.add(i);
+        }
+        threadCounts.add(cores);
+        int parallelGrain = 1 << 13;
+
         // Data generators
         Generator randomGen = (size) -> {
             return generateArray(100, 999, size);
@@ -274,6 +357,7 @@ public class Quick {
                 //"Sequence:0xCAFEBABE",
                 //"Sequence:0xBAADF00D",
         };
+        Generators.Seeded[] distributions = distributions();
 
         // Default test data
         TestSetup defaultTest = new TestSetup("Default", null, null, 0, null, null);
@@ -292,6 +376,11 @@ public class Quick {
                     variant.part = partitioners[i];
                     temp.add(variant);
                 }
+                for (int i = 0; i < rangePartitioners.length; i++) {
+                    TestSetup variant = new TestSetup(setup, rangePartNames[i]);
+                    variant.rpart = rangePartitioners[i];
+                    temp.add(variant);
+                }
             }
         }
 
@@ -323,6 +412,17 @@ public class Quick {
                     variant.gen = generators[i];
                     temp.add(variant);
                 }
+
+                // Lomuto goes quadratic on the long runs of equal keys some of these have, so leave it out
+                if (setup.pivp != motPiv || !(setup.part == hoarePart || setup.part == hoareHolePart || setup.part == blockPart
+                        || setup.rpart != null)) {
+                    continue;
+                }
+                for (Generators.Seeded distribution : distributions) {
+                    TestSetup variant = new TestSetup(setup, setup.name + " on " + distribution.name + " data");
+                    variant.gen = distribution;
+                    temp.add(variant);
+                }
             }
         }
 
@@ -352,11 +452,283 @@ public class Quick {
             }
         }
 
+        { // Block for creating iterative variants
+            // Swap arrays (don't want to add to a collection we're iterating)
+            tests = temp;
+            temp = new ArrayList<>(tests);
+
+            // Run every pivot/partition pair without recursion, to compare against the recursive sort
+            for (TestSetup setup : tests) {
+                if (setup.ssort != null) {
+                    continue;
+                }
+
+                TestSetup variant = new TestSetup(setup, setup.name + " iterative");
+                variant.engine = Quick::sortIterative;
+                temp.add(variant);
+            }
+        }
+
+        { // Block for creating introsort variants
+            // Swap arrays (don't want to add to a collection we're iterating)
+            tests = temp;
+            temp = new ArrayList<>(tests);
+
+            // Guard every pivot/partition pair with the heapsort fallback
+            for (TestSetup setup : tests) {
+                if (setup.ssort != null || setup.engine != null) {
+                    continue;
+                }
+
+                TestSetup variant = new TestSetup(setup, setup.name + " introsort");
+                variant.engine = new IntroSort();
+                temp.add(variant);
+            }
+        }
+
+        { // Block for creating parallel variants
+            // Swap arrays (don't want to add to a collection we're iterating)
+            tests = temp;
+            temp = new ArrayList<>(tests);
+
+            // Run the plain median of three sorts on each thread count, so speedup can be read off against 1 thread.
+            // Iterative and introsort variants are left out: the parallel engine would replace theirs
+            for (TestSetup setup : tests) {
+                if (setup.pivp != motPiv || setup.ssort != null || setup.engine != null) {
+                    continue;
+                }
+
+                for (int threads : threadCounts) {
+                    TestSetup variant = new TestSetup(setup, setup.name + " parallel x" + threads);
+                    variant.engine = new ParallelSort(threads, parallelGrain);
+                    temp.add(variant);
+                }
+                for (int threads : threadCounts) {
+                    TestSetup variant = new TestSetup(setup, setup.name + " sample sort x" + threads);
+                    variant.engine = new SampleSort(threads);
+                    temp.add(variant);
+                }
+            }
+        }
+
+        { // Block for creating adaptive (run detecting) variants
+            // Swap arrays (don't want to add to a collection we're iterating)
+            tests = temp;
+            temp = new ArrayList<>(tests);
+
+            // Scan for runs in front of every plain sort, and only here run on sorted and reversed data,
+            // which the bare quicksorts can't finish in reasonable time
+            for (TestSetup setup : tests) {
+                if (setup.ssort != null || setup.engine != null) {
+                    continue;
+                }
+
+                TestSetup variant = new TestSetup(setup, setup.name + " adaptive");
+                variant.engine = new AdaptiveSort();
+                temp.add(variant);
+
+                if (setup.gen != randomGen) {
+                    continue;
+                }
+                TestSetup sorted = new TestSetup(setup, setup.name.replace(" on Random data", " on sorted data") + " adaptive");
+                sorted.gen = sortedGen;
+                sorted.engine = new AdaptiveSort();
+                temp.add(sorted);
+
+                TestSetup reversed = new TestSetup(setup, setup.name.replace(" on Random data", " on reversed data") + " adaptive");
+                reversed.gen = reversedGen;
+                reversed.engine = new AdaptiveSort();
+                temp.add(reversed);
+            }
+        }
+
+        { // Block for creating specialized variants
+            // Swap arrays (don't want to add to a collection we're iterating)
+            tests = temp;
+            temp = new ArrayList<>(tests);
+
+            // Same sort on a private kernel class, so its timing can't depend on which tests ran before it
+            for (TestSetup setup : tests) {
+                if (setup.ssort != null || setup.engine != null) {
+                    continue;
+                }
+
+                TestSetup variant = new TestSetup(setup, setup.name + " specialized");
+                variant.engine = new SpecializedSort();
+                temp.add(variant);
+            }
+        }
+
+        { // Block for creating linear time sort variants
+            // No quicksort at all, the whole array goes to radix or counting sort
+            for (int i = 0; i < generators.length; i++) {
+                // Pure LSD, radixSort itself would hand small value ranges such as Random data to counting sort
+                TestSetup radix = new TestSetup("radix sort on " + generatorNames[i] + " data", null, null, 0, null, generators[i]);
+                radix.engine = (array, setup) -> radixSortLsd(array, 0, array.length - 1);
+                temp.add(radix);
+
+                TestSetup counting = new TestSetup("counting sort on " + generatorNames[i] + " data", null, null, 0, null, generators[i]);
+                counting.engine = (array, setup) -> countingSort(array, 0, array.length - 1);
+                temp.add(counting);
+            }
+        }
+
 
         // Return completed variation list
         return temp;
     }
 
+    /**
+     * Production-shaped data, seeded so every run and machine sorts the same arrays
+     */
+    static Generators.Seeded[] distributions() {
+        long distributionSeed = 0xCAFEBABEL;
+        return new Generators.Seeded[]{
+                Generators.uniform(100, 999, distributionSeed),
+                Generators.sortedWithNoise(1, distributionSeed),
+                Generators.organPipe(distributionSeed),
+                Generators.sawtooth(1000, distributionSeed),
+                Generators.zipfian(1000, 1.0, distributionSeed),
+                Generators.sortedRuns(1000, distributionSeed),
+        };
+    }
+
+    /// "<partitioner> + <pivot> on <generator> data", then an optional subsort, as getTests() writes them
+    private static final Pattern TEST_NAME =
+            Pattern.compile("(.+) \\+ (.+) on (.+) data(?:\\+(insertion|radix|counting) below (\\d+)( once at end)?)?");
+
+    /**
+     * Build the getTests() setup called name on its own, without building the rest of the matrix.
+     * Covers the sequential sorts: a partitioner and pivot on Random data or a distribution, with an optional
+     * insertion, radix or counting subsort and an optional iterative, introsort, adaptive or specialized engine.
+     * Engines built here keep no counters, so the setup can be shared between threads
+     *
+     * @param name             Test name as written by getTests()
+     * @return the setup, or null when name is not one of those sorts
+     */
+    static TestSetup buildTest(String name) {
+        String rest = name;
+        Engine engine = null;
+        for (String family : new String[]{" iterative", " introsort", " adaptive", " specialized"}) {
+            if (!rest.endsWith(family)) {
+                continue;
+            }
+            rest = rest.substring(0, rest.length() - family.length());
+            switch (family) {
+                case " iterative":
+                    engine = Quick::sortIterative;
+                    break;
+                case " introsort":
+                    engine = new IntroSort(false);
+                    break;
+                case " adaptive":
+                    engine = new AdaptiveSort(false);
+                    break;
+                default:
+                    engine = new SpecializedSort();
+                    break;
+            }
+            break;
+        }
+
+        Matcher matcher = TEST_NAME.matcher(rest);
+        if (!matcher.matches()) {
+            return null;
+        }
+        PivotPicker pivp;
+        switch (matcher.group(2)) {
+            case "Always Pick Leftmost":
+                pivp = Quick::alwaysPickLeftmost;
+                break;
+            case "Always Pick Middle":
+                pivp = Quick::alwaysPickMiddle;
+                break;
+            case "Always Pick Rightmost":
+                pivp = Quick::alwaysPickRightmost;
+                break;
+            case "Median Of Three":
+                pivp = Quick::medianOfThree;
+                break;
+            case "Ninther":
+                pivp = Quick::ninther;
+                break;
+            case "Seeded Random":
+                pivp = seededRandomPivot(0xDEADBEEFL);
+                break;
+            case "Median Of K":
+                pivp = Quick::medianOfK;
+                break;
+            case "Adaptive":
+                pivp = Quick::adaptivePivot;
+                break;
+            default:
+                return null;
+        }
+
+        Generator gen = null;
+        if (matcher.group(3).equals("Random")) {
+            gen = (size) -> generateArray(100, 999, size);
+        }
+        for (Generators.Seeded distribution : distributions()) {
+            if (distribution.name.equals(matcher.group(3))) {
+                gen = distribution;
+            }
+        }
+        if (gen == null) {
+            return null;
+        }
+
+        TestSetup setup = new TestSetup(name, pivp, null, 0, null, gen);
+        switch (matcher.group(1)) {
+            case "lomuto":
+                setup.part = Quick::partition_Lomuto;
+                break;
+            case "hoare":
+                setup.part = Quick::partition_Hoare;
+                break;
+            case "hoare hole":
+                setup.part = Quick::partition_HoareHole;
+                break;
+            case "lomuto hole":
+                setup.part = Quick::partition_LomutoHole;
+                break;
+            case "lomuto branchless":
+                setup.part = Quick::partition_LomutoBranchless;
+                break;
+            case "lane block":
+                setup.part = Quick::partition_LaneBlock;
+                break;
+            case "block":
+                setup.part = Quick::partition_Block;
+                break;
+            case "three-way":
+                setup.rpart = Quick::partition_ThreeWay;
+                break;
+            case "dual pivot":
+                setup.rpart = Quick::partition_DualPivot;
+                break;
+            default:
+                return null;
+        }
+        if (matcher.group(4) != null) {
+            switch (matcher.group(4)) {
+                case "insertion":
+                    setup.ssort = Quick::insertionSort;
+                    break;
+                case "radix":
+                    setup.ssort = Quick::radixSortLsd;
+                    break;
+                default:
+                    setup.ssort = Quick::countingSort;
+                    break;
+            }
+            setup.sst = Integer.parseInt(matcher.group(5));
+            setup.sortFinal = matcher.group(6) != null;
+        }
+        setup.engine = engine;
+        return setup;
+    }
+
 
     /**
      * Helper function @param array
@@ -410,88 +782,1115 @@ public class Quick {
         return mid;
     }
 
+    /**
+     * Index of the median value among arr[a], arr[b] and arr[c], without moving anything
+     */
+    public static int medianIndex(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) {
+                return b;
+            }
+            return (arr[a] < arr[c]) ? c : a;
+        }
+        if (arr[a] < arr[c]) {
+            return a;
+        }
+        return (arr[b] < arr[c]) ? c : b;
+    }
+
+    /**
+     * Pivot function using Tukey's ninther: the median of the medians of three evenly spaced triples.
+     * Reads nine elements and moves none
+     */
+    public static int ninther(int[] arr, int left, int right) {
+        int eighth = (right - left) / 8;
+        int mid = (left + right) >>> 1;
+
+        int low = medianIndex(arr, left, left + eighth, left + 2 * eighth);
+        int middle = medianIndex(arr, mid - eighth, mid, mid + eighth);
+        int high = medianIndex(arr, right - 2 * eighth, right - eighth, right);
+        return medianIndex(arr, low, middle, high);
+    }
+
+    /**
+     * Pivot function that picks a pseudo-random index from a hash of the seed and the range.
+     * Holds no state, so it is reproducible and safe to share between threads
+     */
+    public static PivotPicker seededRandomPivot(long seed) {
+        return (arr, left, right) -> {
+            long hash = mix64(seed ^ (((long) left << 32) | (right & 0xFFFFFFFFL)));
+            return left + (int) Long.remainderUnsigned(hash, right - left + 1);
+        };
+    }
+
+    /**
+     * 64 bit finalizer from SplittableRandom
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /// Most samples medianOfK takes
+    static final int MAX_PIVOT_SAMPLES = 511;
+
+    /**
+     * Pivot function that takes the median of k evenly spaced samples, with k about sqrt(span) / 4.
+     * The samples are swapped to the front of the range and insertion sorted there
+     */
+    public static int medianOfK(int[] arr, int left, int right) {
+        int span = right - left;
+        int k = Math.min(MAX_PIVOT_SAMPLES, ((int) Math.sqrt(span) / 4) | 1);
+        if (k < 3) {
+            return medianOfThree(arr, left, right);
+        }
+
+        /// Gather samples into arr[left..left+k)
+        long step = (long) span / (k - 1);
+        for (int i = 0; i < k; i++) {
+            swap(arr, left + i, left + (int) (i * step));
+        }
+        insertionSort(arr, left, left + k - 1);
+
+        return left + k / 2;
+    }
+
+    /**
+     * Pivot function that spends more on the pivot the larger the range is
+     */
+    public static int adaptivePivot(int[] arr, int left, int right) {
+        int span = right - left;
+        if (span < 16) {
+            return alwaysPickMiddle(arr, left, right);
+        }
+        if (span < 1024) {
+            return medianOfThree(arr, left, right);
+        }
+        if (span < 1 << 16) {
+            return ninther(arr, left, right);
+        }
+        return medianOfK(arr, left, right);
+    }
+
     /**
      * Insertion sort subsort
      */
     public static void insertionSort(int[] arr, int left, int right) {
+        long swaps = 0;
 
         for (int i = left + 1; i <= right; i++) {
             for (int k = i; (k > left) && arr[k-1] > arr[k]; k--) {
                 int temp = arr[k];
                 arr[k] = arr[k - 1];
                 arr[k - 1] = temp;
+                if (SortMetrics.ENABLED) {
+                    swaps++;
+                }
             }
 
         }
+
+        // One comparison per swap plus the one that stopped each element (none when it reached left)
+        if (SortMetrics.ENABLED) {
+            countWork(swaps + Math.max(0, right - left), 2 * swaps);
+        }
     }
 
     /**
-     * Swap helper
+     * Add comparisons and element writes to this thread's metrics
      */
-    public static void swap(int[] arr, int a, int b) {
-        int temp = arr[a];
-        arr[a] = arr[b];
-        arr[b] = temp;
+    static void countWork(long comparisons, long moves) {
+        SortMetrics.Counters counters = SortMetrics.get();
+        counters.comparisons += comparisons;
+        counters.moves += moves;
     }
 
     /**
-     * Entry into quicksort
-     *
-     * @param array            Array to sort
-     * @param setup             Configuration for sort
+     * In-place heapsort subsort
      */
-    public static void sort(int[] array, TestSetup setup) {
-        sort(array, 0, array.length - 1, setup);
+    public static void heapSort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+
+        /// Build a max heap over arr[left..right]
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, left, i, n);
+        }
+
+        /// Repeatedly move the max to the end and shrink the heap
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, left, left + end);
+            siftDown(arr, left, 0, end);
+        }
     }
 
     /**
-     * Actual quicksort
-     *
-     * @param left             low index of region to sort
-     * @param right            high index of region to sort
-     * @param array            Array to sort
-     * @param setup             Configuration for sort
+     * Sift heap node i down in the heap of size n rooted at arr[base]
      */
-    public static void sort(int[] array, int left, int right, TestSetup setup) {
-        // Span length of elements to sort
-        int span = right - left;
+    private static void siftDown(int[] arr, int base, int i, int n) {
+        int value = arr[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            // Pick the larger child
+            if (child + 1 < n && arr[base + child + 1] > arr[base + child]) {
+                child++;
+            }
+            if (arr[base + child] <= value) {
+                break;
+            }
+            arr[base + i] = arr[base + child];
+            i = child;
+        }
+        arr[base + i] = value;
+    }
 
-        // Base cases
+    /// Spans shorter than this are insertion sorted by radixSort, clearing its counts would cost more
+    static final int RADIX_MIN = 64;
+    /// Largest max - min + 1 that countingSort keeps counts for
+    static final int COUNTING_MAX_RANGE = 1 << 16;
 
-        // Span of one element, trivially sorted
-        if (span < 1) {
-            return;
-        }
-        // Span of two elements, may need one swap
-        if (span < 2) {
-            if (array[left] > array[right]) {
-                swap(array, left, right);
+    /**
+     * Per-thread scratch space, so the linear time sorts don't allocate per call
+     */
+    static class Scratch {
+        /// Four 256-entry byte histograms for radixSort, all zero between calls
+        final int[] digitCounts = new int[4 * 256];
+        /// Value counts for countingSort, all zero between calls
+        int[] valueCounts = new int[0];
+        /// Offsets of misplaced elements in the current left and right blocks of partition_Block
+        final int[] blockOffsetsLeft = new int[BLOCK_SIZE];
+        final int[] blockOffsetsRight = new int[BLOCK_SIZE];
+        /// Destination for radixSort passes
+        int[] buffer = new int[0];
+        /// Values sampled by AutoTuner.classify
+        final int[] profileSample = new int[AutoTuner.PROFILE_SAMPLES];
+        /// SampleSort's scatter target and bucket of each element, owned by the thread that called sort
+        int[] scatter = new int[0];
+        char[] bucketOf = new char[0];
+
+        int[] buffer(int size) {
+            if (buffer.length < size) {
+                buffer = new int[size];
             }
-            return;
+            return buffer;
         }
 
-        /// Based on span, pick using recursive quicksort or using secondary sorting algorithm
-        // we'll do the subsort after the quicksort finishes instead.
-        if (span <= setup.sst && setup.ssort != null) {
-            if (!setup.sortFinal) {
-                setup.ssort.sort(array, left, right);
+        int[] scatter(int size) {
+            if (scatter.length < size) {
+                scatter = new int[size];
             }
-
-            return;
+            return scatter;
         }
 
-        // use quicksort if over threshold or no secondary
-        int pivot = setup.pivp.getPivot(array, left, right);
-
+        char[] bucketOf(int size) {
+            if (bucketOf.length < size) {
+                bucketOf = new char[size];
+            }
+            return bucketOf;
+        }
 
-        int p = setup.part.partition(array, left, right, pivot);
-        // Recurse down left/right sides with quicksort
-        sort(array, left, p - 1, setup);
-        sort(array, p + 1, right, setup);
+        int[] valueCounts(int size) {
+            if (valueCounts.length < size) {
+                valueCounts = new int[size];
+            }
+            return valueCounts;
+        }
     }
 
+    static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     /**
-     * double-sided partition method I wrote
+     * LSD radix sort subsort, one byte per pass.
+     * Picks counting sort instead when the values span a small range,
+     * and skips passes where every value has the same byte
+     */
+    public static void radixSort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < RADIX_MIN) {
+            insertionSort(arr, left, right);
+            return;
+        }
+
+        int min = arr[left];
+        int max = min;
+        for (int i = left + 1; i <= right; i++) {
+            min = Math.min(min, arr[i]);
+            max = Math.max(max, arr[i]);
+        }
+        long range = (long) max - min + 1;
+        if (range <= COUNTING_MAX_RANGE && range <= 2L * n) {
+            countingSort(arr, left, right, min, max);
+            return;
+        }
+        radixPasses(arr, left, right);
+    }
+
+    /**
+     * LSD radix sort without radixSort's switch to counting sort, so every span above RADIX_MIN
+     * really goes through the byte passes
+     */
+    public static void radixSortLsd(int[] arr, int left, int right) {
+        if (right - left + 1 < RADIX_MIN) {
+            insertionSort(arr, left, right);
+            return;
+        }
+        radixPasses(arr, left, right);
+    }
+
+    /**
+     * The byte passes of radixSort, skipping those where every value has the same byte
+     */
+    private static void radixPasses(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        Scratch scratch = SCRATCH.get();
+        int[] counts = scratch.digitCounts;
+        int[] buffer = scratch.buffer(n);
+
+        /// Histogram all four bytes in one pass, sign bit flipped so negatives sort first
+        for (int i = left; i <= right; i++) {
+            int v = arr[i] ^ Integer.MIN_VALUE;
+            counts[v & 0xFF]++;
+            counts[256 + ((v >>> 8) & 0xFF)]++;
+            counts[512 + ((v >>> 16) & 0xFF)]++;
+            counts[768 + (v >>> 24)]++;
+        }
+
+        int[] src = arr;
+        int srcOffset = left;
+        int[] dst = buffer;
+        int dstOffset = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            int base = pass * 256;
+            int shift = pass * 8;
+
+            // Every value has the same byte here, this pass wouldn't move anything
+            int firstDigit = ((src[srcOffset] ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+            if (counts[base + firstDigit] == n) {
+                counts[base + firstDigit] = 0;
+                continue;
+            }
+
+            /// Turn counts into starting offsets, clearing them for the next call as we go
+            int sum = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = counts[base + d];
+                counts[base + d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int v = src[srcOffset + i];
+                int d = ((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+                dst[dstOffset + counts[base + d]++] = v;
+            }
+            Arrays.fill(counts, base, base + 256, 0);
+
+            // Ping-pong between the array and the buffer
+            int[] tempArray = src;
+            src = dst;
+            dst = tempArray;
+            int tempOffset = srcOffset;
+            srcOffset = dstOffset;
+            dstOffset = tempOffset;
+        }
+
+        /// Odd number of passes ran, result is in the buffer
+        if (src != arr) {
+            System.arraycopy(src, srcOffset, arr, left, n);
+        }
+    }
+
+    /**
+     * Counting sort subsort.
+     * Falls back to radix sort when the values span more than COUNTING_MAX_RANGE
+     */
+    public static void countingSort(int[] arr, int left, int right) {
+        if (right <= left) {
+            return;
+        }
+
+        int min = arr[left];
+        int max = min;
+        for (int i = left + 1; i <= right; i++) {
+            min = Math.min(min, arr[i]);
+            max = Math.max(max, arr[i]);
+        }
+        if ((long) max - min + 1 > COUNTING_MAX_RANGE) {
+            radixSort(arr, left, right);
+            return;
+        }
+        countingSort(arr, left, right, min, max);
+    }
+
+    /**
+     * Counting sort of values known to be in [min, max]
+     */
+    private static void countingSort(int[] arr, int left, int right, int min, int max) {
+        int range = max - min + 1;
+        int[] counts = SCRATCH.get().valueCounts(range);
+
+        for (int i = left; i <= right; i++) {
+            counts[arr[i] - min]++;
+        }
+
+        /// Write each value out count times, clearing counts for the next call
+        int k = left;
+        for (int v = 0; v < range; v++) {
+            int c = counts[v];
+            counts[v] = 0;
+            int value = v + min;
+            for (int end = k + c; k < end; k++) {
+                arr[k] = value;
+            }
+        }
+    }
+
+    /**
+     * Swap helper
+     */
+    public static void swap(int[] arr, int a, int b) {
+        int temp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = temp;
+    }
+
+    /**
+     * Sort with the configuration AutoTuner picked for arrays of this size and shape on this machine.
+     * The profile file (-Dquick.profile, default quick-profile.properties) is read on the first call
+     *
+     * @param array            Array to sort
+     */
+    public static void sort(int[] array) {
+        runSort(array, AutoTuner.installed().choose(array));
+    }
+
+    /**
+     * Entry into quicksort
+     *
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void sort(int[] array, TestSetup setup) {
+        if (setup.engine != null) {
+            setup.engine.sort(array, setup);
+            return;
+        }
+        sort(array, 0, array.length - 1, setup);
+    }
+
+    /**
+     * Sort the way a test does, including the final subsort pass when the setup asks for one
+     *
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void runSort(int[] array, TestSetup setup) {
+        sort(array, setup);
+        if (setup.sortFinal) {
+            if (SortMetrics.ENABLED) {
+                SortMetrics.get().subsortCalls++;
+            }
+            setup.ssort.sort(array, 0, array.length - 1);
+        }
+    }
+
+    /**
+     * Actual quicksort
+     *
+     * @param left             low index of region to sort
+     * @param right            high index of region to sort
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void sort(int[] array, int left, int right, TestSetup setup) {
+        if (sortBaseCase(array, left, right, setup)) {
+            return;
+        }
+
+        // use quicksort if over threshold or no secondary
+        int pivot = setup.pivp.getPivot(array, left, right);
+
+        if (setup.rpart != null) {
+            long range = setup.rpart.partition(array, left, right, pivot);
+            int lo = rangeLow(range);
+            int hi = rangeHigh(range);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.Counters counters = SortMetrics.get();
+                counters.partitioned(left, right, lo, hi);
+                counters.enter();
+            }
+            sort(array, left, lo - 1, setup);
+            // Middle only needs sorting when it lies between two different pivot values
+            if (array[lo] != array[hi]) {
+                sort(array, lo + 1, hi - 1, setup);
+            }
+            sort(array, hi + 1, right, setup);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.get().exit();
+            }
+            return;
+        }
+
+        int p = setup.part.partition(array, left, right, pivot);
+        if (SortMetrics.ENABLED) {
+            SortMetrics.Counters counters = SortMetrics.get();
+            counters.partitioned(left, right, p, p);
+            counters.enter();
+        }
+        // Recurse down left/right sides with quicksort
+        sort(array, left, p - 1, setup);
+        sort(array, p + 1, right, setup);
+        if (SortMetrics.ENABLED) {
+            SortMetrics.get().exit();
+        }
+    }
+
+    /**
+     * Base cases shared by the quicksort modes
+     *
+     * @param left             low index of region to sort
+     * @param right            high index of region to sort
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     * @return true if the region needs no further partitioning
+     */
+    static boolean sortBaseCase(int[] array, int left, int right, TestSetup setup) {
+        // Span length of elements to sort
+        int span = right - left;
+
+        // Span of one element, trivially sorted
+        if (span < 1) {
+            return true;
+        }
+        // Span of two elements, may need one swap
+        if (span < 2) {
+            if (array[left] > array[right]) {
+                swap(array, left, right);
+            }
+            return true;
+        }
+
+        /// Based on span, pick using recursive quicksort or using secondary sorting algorithm
+        // we'll do the subsort after the quicksort finishes instead.
+        if (span <= setup.sst && setup.ssort != null) {
+            if (!setup.sortFinal) {
+                if (SortMetrics.ENABLED) {
+                    SortMetrics.get().subsortCalls++;
+                }
+                setup.ssort.sort(array, left, right);
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Quicksort without recursion.
+     * Pending ranges live on an int stack; the larger side of each partition is pushed
+     * and the smaller side is sorted next, so the stack never holds more than log2(n) ranges
+     * no matter how bad the pivots are.
+     *
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void sortIterative(int[] array, TestSetup setup) {
+        // Two ints (left, right) per pending range.
+        // Each level pushes at most two ranges (one for single pivot partitioners),
+        // and the next range to sort is at most half of the last one pushed, so 64 ranges fits any int[]
+        int[] stack = new int[2 * 64];
+        int top = 0;
+
+        int left = 0;
+        int right = array.length - 1;
+        while (true) {
+            if (sortBaseCase(array, left, right, setup)) {
+                /// Range is done, pop the next one
+                if (top == 0) {
+                    return;
+                }
+                right = stack[--top];
+                left = stack[--top];
+                continue;
+            }
+
+            int pivot = setup.pivp.getPivot(array, left, right);
+
+            if (setup.rpart != null) {
+                long range = setup.rpart.partition(array, left, right, pivot);
+                int lo = rangeLow(range);
+                int hi = rangeHigh(range);
+                // Empty middle when it is all one value
+                int midRight = (array[lo] != array[hi]) ? hi - 1 : lo;
+
+                /// Order the three ranges so a is the largest and c the smallest
+                int aLeft = left;
+                int aRight = lo - 1;
+                int bLeft = lo + 1;
+                int bRight = midRight;
+                int cLeft = hi + 1;
+                int cRight = right;
+                int tmp;
+                if (aRight - aLeft < bRight - bLeft) {
+                    tmp = aLeft; aLeft = bLeft; bLeft = tmp;
+                    tmp = aRight; aRight = bRight; bRight = tmp;
+                }
+                if (aRight - aLeft < cRight - cLeft) {
+                    tmp = aLeft; aLeft = cLeft; cLeft = tmp;
+                    tmp = aRight; aRight = cRight; cRight = tmp;
+                }
+                if (bRight - bLeft < cRight - cLeft) {
+                    tmp = bLeft; bLeft = cLeft; cLeft = tmp;
+                    tmp = bRight; bRight = cRight; cRight = tmp;
+                }
+
+                /// Push the two larger ranges that still need sorting, keep going on the smallest
+                if (aRight > aLeft) {
+                    stack[top++] = aLeft;
+                    stack[top++] = aRight;
+                }
+                if (bRight > bLeft) {
+                    stack[top++] = bLeft;
+                    stack[top++] = bRight;
+                }
+                if (SortMetrics.ENABLED) {
+                    SortMetrics.Counters counters = SortMetrics.get();
+                    counters.partitioned(left, right, lo, hi);
+                    counters.maxDepth = Math.max(counters.maxDepth, top / 2 + 1);
+                }
+                left = cLeft;
+                right = cRight;
+                continue;
+            }
+
+            int p = setup.part.partition(array, left, right, pivot);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.Counters counters = SortMetrics.get();
+                counters.partitioned(left, right, p, p);
+                counters.maxDepth = Math.max(counters.maxDepth, top / 2 + 1);
+            }
+
+            /// Push the larger side, keep going on the smaller
+            if (p - left < right - p) {
+                stack[top++] = p + 1;
+                stack[top++] = right;
+                right = p - 1;
+            } else {
+                stack[top++] = left;
+                stack[top++] = p - 1;
+                left = p + 1;
+            }
+        }
+    }
+
+    /**
+     * Introspective quicksort.
+     * Tracks recursion depth and heapsorts any range still being partitioned
+     * after 2 * log2(n) levels, so bad pivots can't make the sort quadratic
+     */
+    static class IntroSort implements Engine {
+        /// Number of ranges handed to heapsort, over every sort run by this engine
+        public long fallbacks;
+        /// False for engines shared between threads, which then keep no counter
+        private final boolean counted;
+
+        IntroSort() {
+            this(true);
+        }
+
+        IntroSort(boolean counted) {
+            this.counted = counted;
+        }
+
+        @Override
+        public void sort(int[] array, TestSetup setup) {
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(array.length, 1)));
+            sort(array, 0, array.length - 1, setup, depthLimit);
+        }
+
+        private void sort(int[] array, int left, int right, TestSetup setup, int depthLeft) {
+            if (sortBaseCase(array, left, right, setup)) {
+                return;
+            }
+
+            // Too deep, pivots are not splitting this range well
+            if (depthLeft == 0) {
+                if (counted) {
+                    fallbacks++;
+                }
+                heapSort(array, left, right);
+                return;
+            }
+
+            int pivot = setup.pivp.getPivot(array, left, right);
+
+            if (setup.rpart != null) {
+                long range = setup.rpart.partition(array, left, right, pivot);
+                int lo = rangeLow(range);
+                int hi = rangeHigh(range);
+                sort(array, left, lo - 1, setup, depthLeft - 1);
+                if (array[lo] != array[hi]) {
+                    sort(array, lo + 1, hi - 1, setup, depthLeft - 1);
+                }
+                sort(array, hi + 1, right, setup, depthLeft - 1);
+                return;
+            }
+
+            int p = setup.part.partition(array, left, right, pivot);
+            sort(array, left, p - 1, setup, depthLeft - 1);
+            sort(array, p + 1, right, setup, depthLeft - 1);
+        }
+    }
+
+    /**
+     * Engine that scans for presorted runs before sorting, TimSort style.
+     * Descending runs are reversed in place, and when the runs are long enough on average they are
+     * merged pairwise with galloping, so sorted, reversed and mostly ordered data take O(n) to O(n log runs).
+     * Anything more disordered falls through to the setup's quicksort
+     */
+    static class AdaptiveSort implements Engine {
+        /// Merge only when runs average at least this many elements, quicksort wins below that
+        static final int MIN_AVERAGE_RUN = 32;
+        /// Consecutive wins by one side of a merge before switching to galloping
+        static final int MIN_GALLOP = 7;
+
+        /// Number of sorts finished by merging runs, over every sort run by this engine
+        public long merged;
+        /// False for engines shared between threads, which then keep no counter
+        private final boolean counted;
+
+        AdaptiveSort() {
+            this(true);
+        }
+
+        AdaptiveSort(boolean counted) {
+            this.counted = counted;
+        }
+
+        @Override
+        public void sort(int[] array, TestSetup setup) {
+            int n = array.length;
+            int[] runs = findRuns(array, n / MIN_AVERAGE_RUN);
+            if (runs == null) {
+                Quick.sort(array, 0, n - 1, setup);
+                return;
+            }
+
+            if (counted) {
+                merged++;
+            }
+            mergeRuns(array, runs);
+        }
+
+        /**
+         * Start of every run plus n at the end, reversing descending runs as they are found.
+         * Gives up and returns null once there are more than maxRuns runs
+         */
+        static int[] findRuns(int[] array, int maxRuns) {
+            int n = array.length;
+            int[] runs = new int[Math.min(maxRuns, n) + 2];
+            int count = 0;
+            int start = 0;
+            while (start < n) {
+                if (count == maxRuns) {
+                    return null;
+                }
+                runs[count++] = start;
+
+                int end = start + 1;
+                if (end < n && array[end] < array[start]) {
+                    // Strictly descending, so reversing it keeps it a valid run
+                    while (end + 1 < n && array[end + 1] < array[end]) {
+                        end++;
+                    }
+                    reverse(array, start, end);
+                    end++;
+                }
+                while (end < n && array[end] >= array[end - 1]) {
+                    end++;
+                }
+                if (SortMetrics.ENABLED) {
+                    countWork(end - start, 0);
+                }
+                start = end;
+            }
+            runs[count] = n;
+            return Arrays.copyOf(runs, count + 1);
+        }
+
+        /**
+         * Merge neighbouring runs pairwise until one is left
+         */
+        static void mergeRuns(int[] array, int[] runs) {
+            int count = runs.length - 1;
+            while (count > 1) {
+                int merged = 0;
+                for (int r = 0; r < count; r += 2) {
+                    if (r + 1 < count) {
+                        mergeLow(array, runs[r], runs[r + 1], runs[r + 2]);
+                    }
+                    runs[merged++] = runs[r];
+                }
+                runs[merged] = runs[count];
+                count = merged;
+            }
+        }
+
+        /**
+         * Merge sorted [lo, mid) and [mid, hi), buffering only the part of the left run that has to move
+         */
+        static void mergeLow(int[] array, int lo, int mid, int hi) {
+            // Left elements no larger than the right run's first are already in place,
+            // and so are right elements no smaller than the left run's last
+            lo = gallopRight(array, lo, mid, array[mid]);
+            hi = gallopLeft(array, mid, hi, array[mid - 1]);
+            if (lo == mid || mid == hi) {
+                return;
+            }
+
+            int lengthA = mid - lo;
+            int[] tmp = SCRATCH.get().buffer(lengthA);
+            System.arraycopy(array, lo, tmp, 0, lengthA);
+            if (SortMetrics.ENABLED) {
+                countWork(hi - lo, hi - lo + lengthA);
+            }
+
+            int i = 0;
+            int j = mid;
+            int dest = lo;
+            int winsA = 0;
+            int winsB = 0;
+            while (i < lengthA && j < hi) {
+                if (array[j] < tmp[i]) {
+                    array[dest++] = array[j++];
+                    winsB++;
+                    winsA = 0;
+                } else {
+                    array[dest++] = tmp[i++];
+                    winsA++;
+                    winsB = 0;
+                }
+
+                // One side keeps winning, so copy its whole stretch at once
+                if (winsA >= MIN_GALLOP && j < hi) {
+                    int end = gallopRight(tmp, i, lengthA, array[j]);
+                    System.arraycopy(tmp, i, array, dest, end - i);
+                    dest += end - i;
+                    i = end;
+                    winsA = 0;
+                } else if (winsB >= MIN_GALLOP && i < lengthA) {
+                    int end = gallopLeft(array, j, hi, tmp[i]);
+                    System.arraycopy(array, j, array, dest, end - j);
+                    dest += end - j;
+                    j = end;
+                    winsB = 0;
+                }
+            }
+            // Whatever is left of the right run is already in place
+            System.arraycopy(tmp, i, array, dest, lengthA - i);
+        }
+
+        /**
+         * First index in [from, to) of sorted arr holding a value greater than key,
+         * probing 1, 3, 7, ... elements ahead before the binary search
+         */
+        static int gallopRight(int[] arr, int from, int to, int key) {
+            int lo = from;
+            int step = 1;
+            while (lo + step - 1 < to && arr[lo + step - 1] <= key) {
+                lo += step;
+                step <<= 1;
+            }
+            int hi = Math.min(to, lo + step - 1);
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (arr[mid] <= key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * First index in [from, to) of sorted arr holding a value not less than key
+         */
+        static int gallopLeft(int[] arr, int from, int to, int key) {
+            int lo = from;
+            int step = 1;
+            while (lo + step - 1 < to && arr[lo + step - 1] < key) {
+                lo += step;
+                step <<= 1;
+            }
+            int hi = Math.min(to, lo + step - 1);
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (arr[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private static void reverse(int[] arr, int left, int right) {
+            while (left < right) {
+                swap(arr, left++, right--);
+            }
+        }
+    }
+
+    /**
+     * Engine that runs quicksort on a ForkJoinPool.
+     * After each partition the two sides are sorted as separate tasks,
+     * and spans below the grain size fall back to the sequential recursive sort
+     */
+    static class ParallelSort implements Engine {
+        private final int threads;
+        private final int grain;
+        /// Started on the first sort, so building getTests() doesn't start any threads
+        private volatile SortPool pool;
+
+        /**
+         * @param threads          Parallelism of the pool
+         * @param grain            Spans smaller than this are sorted sequentially
+         */
+        public ParallelSort(int threads, int grain) {
+            this.threads = threads;
+            this.grain = grain;
+        }
+
+        @Override
+        public void sort(int[] array, TestSetup setup) {
+            SortPool started = pool();
+            started.claim();
+            started.invoke(new SortTask(array, 0, array.length - 1, setup, grain));
+        }
+
+        @Override
+        public boolean singleThreaded() {
+            return false;
+        }
+
+        private SortPool pool() {
+            SortPool started = pool;
+            if (started == null) {
+                synchronized (this) {
+                    started = pool;
+                    if (started == null) {
+                        pool = started = new SortPool(threads);
+                    }
+                }
+            }
+            return started;
+        }
+    }
+
+    /**
+     * Fork-join task sorting array[left..right]
+     */
+    static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int left;
+        private final int right;
+        private final TestSetup setup;
+        private final int grain;
+
+        SortTask(int[] array, int left, int right, TestSetup setup, int grain) {
+            this.array = array;
+            this.left = left;
+            this.right = right;
+            this.setup = setup;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            int span = right - left;
+
+            /// Small spans (and anything the subsort would take) are cheaper done sequentially
+            if (span < grain || span <= setup.sst) {
+                Quick.sort(array, left, right, setup);
+                return;
+            }
+
+            int pivot = setup.pivp.getPivot(array, left, right);
+
+            if (setup.rpart != null) {
+                long range = setup.rpart.partition(array, left, right, pivot);
+                int lo = rangeLow(range);
+                int hi = rangeHigh(range);
+                // Empty middle when it is all one value
+                int midRight = (array[lo] != array[hi]) ? hi - 1 : lo;
+                invokeAll(new SortTask(array, left, lo - 1, setup, grain),
+                        new SortTask(array, lo + 1, midRight, setup, grain),
+                        new SortTask(array, hi + 1, right, setup, grain));
+                return;
+            }
+
+            int p = setup.part.partition(array, left, right, pivot);
+
+            // Sort both sides as independent tasks
+            invokeAll(new SortTask(array, left, p - 1, setup, grain),
+                    new SortTask(array, p + 1, right, setup, grain));
+        }
+    }
+
+    /**
+     * Pack the lo/hi bounds returned by a RangePartitioner into one long
+     */
+    public static long packRange(int lo, int hi) {
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Low bound of a packed range
+     */
+    public static int rangeLow(long range) {
+        return (int) (range >>> 32);
+    }
+
+    /**
+     * High bound of a packed range
+     */
+    public static int rangeHigh(long range) {
+        return (int) range;
+    }
+
+    /**
+     * Three-way (Dutch national flag) partition.
+     * Every element equal to the pivot value ends up in [lo, hi],
+     * so runs of duplicates are never partitioned again
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return packed range holding every element equal to the pivot value
+     */
+    public static long partition_ThreeWay(int[] array, int left, int right, int pivot) {
+        int pv = array[pivot];
+        // [left, lt) < pv, [lt, i) == pv, (gt, right] > pv
+        int lt = left;
+        int i = left;
+        int gt = right;
+
+        long comparisons = 0;
+        long swaps = 0;
+
+        while (i <= gt) {
+            if (array[i] < pv) {
+                swap(array, lt, i);
+                lt++;
+                i++;
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                    swaps++;
+                }
+            } else if (array[i] > pv) {
+                swap(array, i, gt);
+                gt--;
+                if (SortMetrics.ENABLED) {
+                    comparisons += 2;
+                    swaps++;
+                }
+            } else {
+                i++;
+                if (SortMetrics.ENABLED) {
+                    comparisons += 2;
+                }
+            }
+        }
+
+        if (SortMetrics.ENABLED) {
+            countWork(comparisons, 2 * swaps);
+        }
+        return packRange(lt, gt);
+    }
+
+    /**
+     * Yaroslavskiy dual pivot partition.
+     * The picked pivot and the rightmost element are the two pivots, smaller one first
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of first pivot element
+     * @return packed positions of the two pivots
+     */
+    public static long partition_DualPivot(int[] array, int left, int right, int pivot) {
+        // Required: Pivots must be placed at the ends of the subregion, smaller on the left
+        swap(array, left, pivot);
+        if (array[left] > array[right]) {
+            swap(array, left, right);
+        }
+
+        int p = array[left];
+        int q = array[right];
+        // [left+1, l) < p, [l, k) in [p, q], (g, right-1] >= q
+        int l = left + 1;
+        int g = right - 1;
+        int k = l;
+        long comparisons = 1;
+        long swaps = 4;
+
+        while (k <= g) {
+            if (array[k] < p) {
+                swap(array, k, l);
+                l++;
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                    swaps++;
+                }
+            } else if (array[k] >= q) {
+                /// Skip elements already on the right side
+                while (array[g] > q && k < g) {
+                    g--;
+                    if (SortMetrics.ENABLED) {
+                        comparisons++;
+                    }
+                }
+                swap(array, k, g);
+                g--;
+                if (array[k] < p) {
+                    swap(array, k, l);
+                    l++;
+                    if (SortMetrics.ENABLED) {
+                        swaps++;
+                    }
+                }
+                if (SortMetrics.ENABLED) {
+                    comparisons += 4;
+                    swaps++;
+                }
+            } else if (SortMetrics.ENABLED) {
+                comparisons += 2;
+            }
+            k++;
+        }
+
+        /// Move pivots into their final positions
+        l--;
+        g++;
+        swap(array, left, l);
+        swap(array, right, g);
+
+        if (SortMetrics.ENABLED) {
+            countWork(comparisons, 2 * swaps);
+        }
+
+        return packRange(l, g);
+    }
+
+    /**
+     * double-sided partition method I wrote
      *
      * @param array array to partition
      * @param left  low index of region to partition
@@ -506,12 +1905,18 @@ public class Quick {
         // pivot value
         int pv = array[pivot];
 
+        long comparisons = 0;
+        long swaps = 1;
+
         /// Loop until break
         while (true) {
 
             /// Walk LP rightward, looking for first value greater than pivot value
             while (array[lp] <= pv && lp != rp) {
                 lp++;
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                }
             }
             if (lp == rp) {
                 break;
@@ -520,6 +1925,9 @@ public class Quick {
             /// Walk RP leftward, looking for first value less than pivot value
             while (array[rp] >= pv && lp != rp) {
                 rp--;
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                }
             }
             if (lp == rp) {
                 break;
@@ -527,6 +1935,13 @@ public class Quick {
 
             // Swap values to correct sides
             swap(array, lp, rp);
+            if (SortMetrics.ENABLED) {
+                comparisons += 2;
+                swaps++;
+            }
+        }
+        if (SortMetrics.ENABLED) {
+            countWork(comparisons, 2 * swaps);
         }
         // Find correct index to swap pivot into.
         int swapIndex = (pivot < lp)
@@ -556,6 +1971,11 @@ public class Quick {
             }
         }
         swap(array, left, s);
+
+        // One comparison per element, one swap per smaller element plus the two pivot swaps
+        if (SortMetrics.ENABLED) {
+            countWork(right - left, 2L * (s - left + 2));
+        }
         return s;
     }
 
@@ -566,30 +1986,42 @@ public class Quick {
         int p = array[left];
         int i = left;
         int j = right + 1;
+        long comparisons = 0;
+        long swaps = 3;
 
         while (true) {
 
             while (true) {
                 i = i + 1;
-                if (i >= array.length) {
-                    i = array.length - 1;
+                // Stay inside the subregion, BatchSort and SampleSort sort its neighbours concurrently
+                if (i > right) {
+                    i = right;
                     break;
                 }
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                }
                 if (array[i] >= p) {
                     break;
                 }
             }
             while (true) {
                 j = j - 1;
-                if (j <= -1) {
-                    i = 0;
+                if (j < left) {
+                    j = left;
                     break;
                 }
+                if (SortMetrics.ENABLED) {
+                    comparisons++;
+                }
                 if (array[j] <= p) {
                     break;
                 }
             }
             swap(array, i, j);
+            if (SortMetrics.ENABLED) {
+                swaps++;
+            }
 
             if (i >= j) {
                 break;
@@ -599,16 +2031,337 @@ public class Quick {
         swap(array, i, j);
         swap(array, left, j);
 
+        if (SortMetrics.ENABLED) {
+            countWork(comparisons, 2 * swaps);
+        }
+        return j;
+    }
+
+    /**
+     * Hoare partition that moves elements into a hole instead of swapping.
+     * The pivot value is lifted out, leaving a hole that the two scans fill alternately,
+     * and the scans are bounded by each other instead of the array length
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_HoareHole(int[] array, int left, int right, int pivot) {
+        int pv = array[pivot];
+        // Hole starts at left
+        array[pivot] = array[left];
+        int i = left;
+        int j = right;
+
+        long moves = 2;
+
+        while (i < j) {
+            /// Hole at i: fill it from the right with a value not greater than the pivot
+            while (i < j && array[j] > pv) {
+                j--;
+            }
+            if (i < j) {
+                array[i++] = array[j];
+                if (SortMetrics.ENABLED) {
+                    moves++;
+                }
+            }
+            /// Hole at j: fill it from the left with a value not less than the pivot
+            while (i < j && array[i] < pv) {
+                i++;
+            }
+            if (i < j) {
+                array[j--] = array[i];
+                if (SortMetrics.ENABLED) {
+                    moves++;
+                }
+            }
+        }
+
+        array[i] = pv;
+
+        // The scans meet after one comparison per element, plus one more for each fill
+        if (SortMetrics.ENABLED) {
+            countWork(right - left + moves - 2, moves);
+        }
+        return i;
+    }
+
+    /**
+     * Lomuto partition that moves elements through a hole instead of swapping.
+     * Elements in [left, hole) are less than the pivot, (hole, i) are not
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_LomutoHole(int[] array, int left, int right, int pivot) {
+        int pv = array[pivot];
+        // Hole starts at left
+        array[pivot] = array[left];
+        int hole = left;
+
+        for (int i = left + 1; i <= right; i++) {
+            int x = array[i];
+            if (x < pv) {
+                // Small value into the hole, first large value out of the way to i
+                array[hole] = x;
+                array[i] = array[hole + 1];
+                hole++;
+            }
+        }
+
+        array[hole] = pv;
+
+        // One comparison per element, two moves per smaller element plus lifting and placing the pivot
+        if (SortMetrics.ENABLED) {
+            countWork(right - left, 2L * (hole - left) + 2);
+        }
+        return hole;
+    }
+
+    /**
+     * Lomuto partition without a data dependent branch.
+     * Every step does the same two stores; for values not less than the pivot they write
+     * elements back where they already are, so the JIT can use conditional moves
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_LomutoBranchless(int[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        swap(array, left, pivot);
+
+        int pv = array[left];
+        // First index not known to be less than the pivot
+        int s = left + 1;
+
+        for (int i = left + 1; i <= right; i++) {
+            int x = array[i];
+            // 1 if x < pv, computed in long so the subtraction can't overflow
+            int smaller = (int) (((long) x - pv) >>> 63);
+            // i - s when swapping, 0 when not
+            int delta = -smaller & (i - s);
+            array[s + delta] = array[s];
+            array[i - delta] = x;
+            s += smaller;
+        }
+
+        swap(array, left, s - 1);
+
+        // Two stores for every element, whatever it compared as
+        if (SortMetrics.ENABLED) {
+            countWork(right - left, 2L * (right - left) + 4);
+        }
+        return s - 1;
+    }
+
+    /// Elements classified per block in partition_Block
+    static final int BLOCK_SIZE = 128;
+
+    /**
+     * BlockQuicksort partition (Edelkamp and Weiss).
+     * Classifies a block of BLOCK_SIZE elements from each end at a time, writing the offset of every
+     * element on the wrong side into a small buffer and advancing the fill count by the comparison
+     * result instead of branching on it. Misplaced pairs are then swapped in bulk, so the only
+     * branches left are loop bounds. The last few blocks are finished with a plain Hoare scan
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_Block(int[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        swap(array, left, pivot);
+
+        int pv = array[left];
+        Scratch scratch = SCRATCH.get();
+        int[] offsetsL = scratch.blockOffsetsLeft;
+        int[] offsetsR = scratch.blockOffsetsRight;
+        long comparisons = 0;
+        long swaps = 2;
+
+        // Everything left of l is no greater than the pivot, everything right of r no less
+        int l = left + 1;
+        int r = right;
+        int numL = 0;
+        int numR = 0;
+        int startL = 0;
+        int startR = 0;
+        while (r - l + 1 > 2 * BLOCK_SIZE) {
+            if (numL == 0) {
+                startL = 0;
+                for (int k = 0; k < BLOCK_SIZE; k++) {
+                    offsetsL[numL] = k;
+                    numL += array[l + k] >= pv ? 1 : 0;
+                }
+            }
+            if (numR == 0) {
+                startR = 0;
+                for (int k = 0; k < BLOCK_SIZE; k++) {
+                    offsetsR[numR] = k;
+                    numR += array[r - k] <= pv ? 1 : 0;
+                }
+            }
+
+            int num = Math.min(numL, numR);
+            for (int k = 0; k < num; k++) {
+                swap(array, l + offsetsL[startL + k], r - offsetsR[startR + k]);
+            }
+            if (SortMetrics.ENABLED) {
+                comparisons += (numL == num ? BLOCK_SIZE : 0) + (numR == num ? BLOCK_SIZE : 0);
+                swaps += num;
+            }
+
+            numL -= num;
+            numR -= num;
+            startL += num;
+            startR += num;
+            if (numL == 0) {
+                l += BLOCK_SIZE;
+            }
+            if (numR == 0) {
+                r -= BLOCK_SIZE;
+            }
+        }
+
+        // Hoare scan over what is left, including any half-used block, which just gets classified again
+        int i = l;
+        int j = r;
+        while (true) {
+            while (i <= j && array[i] < pv) {
+                i++;
+            }
+            while (i <= j && array[j] > pv) {
+                j--;
+            }
+            if (i >= j) {
+                break;
+            }
+            swap(array, i++, j--);
+            if (SortMetrics.ENABLED) {
+                swaps++;
+            }
+        }
+
+        swap(array, left, j);
+
+        if (SortMetrics.ENABLED) {
+            countWork(comparisons + (r - l + 1), 2 * swaps);
+        }
         return j;
     }
 
+    /// Elements compared against the pivot per block in partition_LaneBlock and isSortedBlocked
+    static final int LANES = 8;
+
+    /**
+     * Partition that compresses blocks of LANES elements into a left and a right buffer.
+     * Every element is written to both buffers and only the fill counts depend on the comparison,
+     * so there are no data dependent branches. The left buffer is the array itself, written behind
+     * the read position; the right buffer is per-thread scratch copied in after the last block
+     *
+     * @param array array to partition
+     * @param left  low index of region to partition
+     * @param right high index of region to partition
+     * @param pivot index of pivot element
+     * @return index where pivot was placed after partitioning
+     */
+    public static int partition_LaneBlock(int[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        swap(array, left, pivot);
+
+        int pv = array[left];
+        int[] high = SCRATCH.get().buffer(right - left);
+        // Next slot of the left buffer, and fill of the right buffer
+        int s = left + 1;
+        int h = 0;
+
+        int i = left + 1;
+        for (; i + LANES - 1 <= right; i += LANES) {
+            for (int k = 0; k < LANES; k++) {
+                int x = array[i + k];
+                // 1 if x < pv, computed in long so the subtraction can't overflow
+                int smaller = (int) (((long) x - pv) >>> 63);
+                array[s] = x;
+                high[h] = x;
+                s += smaller;
+                h += 1 - smaller;
+            }
+        }
+        // Partial last block
+        for (; i <= right; i++) {
+            int x = array[i];
+            int smaller = (int) (((long) x - pv) >>> 63);
+            array[s] = x;
+            high[h] = x;
+            s += smaller;
+            h += 1 - smaller;
+        }
+        System.arraycopy(high, 0, array, s, h);
+
+        swap(array, left, s - 1);
+
+        // Two buffer writes per element, then the copy back of the right buffer
+        if (SortMetrics.ENABLED) {
+            countWork(right - left, 2L * (right - left) + h + 4);
+        }
+        return s - 1;
+    }
+
+    /**
+     * True if arr is in ascending order, one comparison and branch per element
+     */
+    public static boolean isSorted(int[] arr) {
+        for (int k = 1; k < arr.length; k++) {
+            if (arr[k] < arr[k - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if arr is in ascending order, checking LANES pairs per block.
+     * Out of order pairs are OR-ed together without branching and tested once per block
+     */
+    public static boolean isSortedBlocked(int[] arr) {
+        int k = 1;
+        for (; k + LANES - 1 < arr.length; k += LANES) {
+            boolean descent = false;
+            for (int lane = 0; lane < LANES; lane++) {
+                descent |= arr[k + lane] < arr[k + lane - 1];
+            }
+            if (descent) {
+                return false;
+            }
+        }
+        for (; k < arr.length; k++) {
+            if (arr[k] < arr[k - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Generate an int[] with size elements in range [min, max)
      */
         public static int[] generateArray(int min, int max, int size) {
         int[] arr = new int[size];
+        /// Per-thread generator, Math.random() shares one synchronized seed between all threads
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
         for (int i = 0; i < size; i++) {
-            arr[i] = min + (int) (Math.random() * (max - min));
+            arr[i] = rand.nextInt(min, max);
         }
         return arr;
     }
@@ -0,0 +1,229 @@
+/**
+ * Quicksort for double[], mirroring the int[] pieces of Quick.
+ * Kept as separate primitive code (no boxing, no generics) so it stays allocation free.
+ * The whole-array entries order NaN last and -0.0 before 0.0, the same as Arrays.sort;
+ * the ranged sort and the strategies only see plain < comparisons.
+ */
+public class QuickDouble {
+    /**
+     * Interface to pick a pivot for quicksort
+     */
+    interface PivotPicker {
+        int getPivot(double[] arr, int left, int right);
+    }
+
+    /**
+     * Interface to function that partitions array around array[pivot]
+     * and returns the new position of the pivot value after partitioning
+     */
+    interface Partitioner {
+        int partition(double[] array, int left, int right, int pivot);
+    }
+
+    /**
+     * Interface to hold another sorting function
+     * to use on runs of the array under a certain size
+     */
+    interface Subsort {
+        void sort(double[] arr, int left, int right);
+    }
+
+    /**
+     * Data class for holding sort configuration
+     */
+    static class Setup {
+        public PivotPicker pivp;
+        public Partitioner part;
+        public int sst;
+        public Subsort ssort;
+
+        public Setup(PivotPicker pp, Partitioner pt, int sst, Subsort ss) {
+            this.pivp = pp;
+            this.part = pt;
+            this.sst = sst;
+            this.ssort = ss;
+        }
+    }
+
+    /// Median of three + hoare + insertion sort below 16
+    public static final Setup DEFAULT = new Setup(QuickDouble::medianOfThree, QuickDouble::partition_Hoare, 16, QuickDouble::insertionSort);
+
+    /**
+     * Pivot function that always picks middlemost item as pivot
+     */
+    public static int alwaysPickMiddle(double[] arr, int left, int right) {
+        return (left + right) >>> 1;
+    }
+
+    /**
+     * Pivot function that picks the median between left/right/middle
+     */
+    public static int medianOfThree(double[] arr, int left, int right) {
+        int mid = (right + left) >>> 1;
+
+        if (arr[right] < arr[left]) {
+            swap(arr, left, right);
+        }
+        if (arr[mid] < arr[left]) {
+            swap(arr, mid, left);
+        }
+        if (arr[right] < arr[mid]) {
+            swap(arr, right, mid);
+        }
+
+        return mid;
+    }
+
+    /**
+     * Insertion sort subsort
+     */
+    public static void insertionSort(double[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            double value = arr[i];
+            int k = i;
+            for (; k > left && arr[k - 1] > value; k--) {
+                arr[k] = arr[k - 1];
+            }
+            arr[k] = value;
+        }
+    }
+
+    /**
+     * Swap helper
+     */
+    public static void swap(double[] arr, int a, int b) {
+        double temp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = temp;
+    }
+
+    /**
+     * Entry into quicksort with the default configuration
+     */
+    public static void sort(double[] array) {
+        sort(array, DEFAULT);
+    }
+
+    /**
+     * Entry into quicksort
+     *
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void sort(double[] array, Setup setup) {
+        /// Move NaNs to the end and turn -0.0 into 0.0, so < gives a total order on what is left
+        int end = array.length;
+        int negativeZeros = 0;
+        for (int i = 0; i < end; ) {
+            double value = array[i];
+            if (value != value) {
+                end--;
+                array[i] = array[end];
+                array[end] = value;
+            } else {
+                if (value == 0.0 && Double.doubleToRawLongBits(value) < 0) {
+                    negativeZeros++;
+                    array[i] = 0.0;
+                }
+                i++;
+            }
+        }
+
+        sort(array, 0, end - 1, setup);
+
+        /// Put the -0.0s back at the start of the zeros
+        if (negativeZeros > 0) {
+            int low = 0;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (array[mid] < 0.0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < low + negativeZeros; i++) {
+                array[i] = -0.0;
+            }
+        }
+    }
+
+    /**
+     * Actual quicksort
+     *
+     * @param left             low index of region to sort
+     * @param right            high index of region to sort
+     * @param array            Array to sort
+     * @param setup             Configuration for sort
+     */
+    public static void sort(double[] array, int left, int right, Setup setup) {
+        int span = right - left;
+
+        // Span of one element, trivially sorted
+        if (span < 1) {
+            return;
+        }
+        // Span of two elements, may need one swap
+        if (span < 2) {
+            if (array[left] > array[right]) {
+                swap(array, left, right);
+            }
+            return;
+        }
+        if (span <= setup.sst && setup.ssort != null) {
+            setup.ssort.sort(array, left, right);
+            return;
+        }
+
+        int pivot = setup.pivp.getPivot(array, left, right);
+        int p = setup.part.partition(array, left, right, pivot);
+        sort(array, left, p - 1, setup);
+        sort(array, p + 1, right, setup);
+    }
+
+    public static int partition_Lomuto(double[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        swap(array, left, pivot);
+
+        double p = array[left];
+        int s = left;
+
+        for (int i = left + 1; i <= right; i++) {
+            if (array[i] < p) {
+                s = s + 1;
+                swap(array, s, i);
+            }
+        }
+        swap(array, left, s);
+        return s;
+    }
+
+    public static int partition_Hoare(double[] array, int left, int right, int pivot) {
+        // Required: Pivot must be placed in leftmost position of subregion
+        swap(array, left, pivot);
+
+        double p = array[left];
+        int i = left;
+        int j = right + 1;
+
+        while (true) {
+            // Walk i right to the first value not less than the pivot
+            while (array[++i] < p) {
+                if (i == right) {
+                    break;
+                }
+            }
+            // Walk j left to the first value not greater than the pivot, array[left] stops it
+            while (p < array[--j]) {
+            }
+            if (i >= j) {
+                break;
+            }
+            swap(array, i, j);
+        }
+
+        swap(array, left, j);
+        return j;
+    }
+}
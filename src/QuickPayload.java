@@ -0,0 +1,203 @@
+/**
+ * Key/payload quicksort: sorts a key array and applies every move to a parallel payload array,
+ * so (key, rowId) style records can be sorted without packing them into objects.
+ * Uses median of three pivots, hoare partitioning and insertion sort below a threshold.
+ */
+public class QuickPayload {
+    /**
+     * Interface to the payload array that follows the keys around
+     */
+    interface Payload {
+        void swap(int a, int b);
+    }
+
+    /**
+     * int[] payload, such as row ids
+     */
+    static final class IntPayload implements Payload {
+        private final int[] values;
+
+        IntPayload(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public void swap(int a, int b) {
+            int temp = values[a];
+            values[a] = values[b];
+            values[b] = temp;
+        }
+    }
+
+    /**
+     * long[] payload, such as file offsets
+     */
+    static final class LongPayload implements Payload {
+        private final long[] values;
+
+        LongPayload(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public void swap(int a, int b) {
+            long temp = values[a];
+            values[a] = values[b];
+            values[b] = temp;
+        }
+    }
+
+    /// Spans at or below this are insertion sorted
+    public static final int INSERTION_THRESHOLD = 16;
+
+    public static void sort(int[] keys, int[] payload) {
+        checkLengths(keys.length, payload.length);
+        sort(keys, 0, keys.length - 1, new IntPayload(payload));
+    }
+
+    public static void sort(int[] keys, long[] payload) {
+        checkLengths(keys.length, payload.length);
+        sort(keys, 0, keys.length - 1, new LongPayload(payload));
+    }
+
+    public static void sort(long[] keys, int[] payload) {
+        checkLengths(keys.length, payload.length);
+        sort(keys, 0, keys.length - 1, new IntPayload(payload));
+    }
+
+    public static void sort(long[] keys, long[] payload) {
+        checkLengths(keys.length, payload.length);
+        sort(keys, 0, keys.length - 1, new LongPayload(payload));
+    }
+
+    private static void checkLengths(int keys, int payload) {
+        if (keys != payload) {
+            throw new IllegalArgumentException("Payload has " + payload + " elements for " + keys + " keys");
+        }
+    }
+
+    /**
+     * Swap a key pair and the matching payload pair
+     */
+    private static void swap(int[] keys, Payload payload, int a, int b) {
+        int temp = keys[a];
+        keys[a] = keys[b];
+        keys[b] = temp;
+        payload.swap(a, b);
+    }
+
+    private static void swap(long[] keys, Payload payload, int a, int b) {
+        long temp = keys[a];
+        keys[a] = keys[b];
+        keys[b] = temp;
+        payload.swap(a, b);
+    }
+
+    /**
+     * Quicksort of int keys over [left, right]
+     */
+    public static void sort(int[] keys, int left, int right, Payload payload) {
+        while (right - left > INSERTION_THRESHOLD) {
+            /// Median of three into the middle, then move it to the left for hoare
+            int mid = (left + right) >>> 1;
+            if (keys[right] < keys[left]) {
+                swap(keys, payload, left, right);
+            }
+            if (keys[mid] < keys[left]) {
+                swap(keys, payload, mid, left);
+            }
+            if (keys[right] < keys[mid]) {
+                swap(keys, payload, right, mid);
+            }
+            swap(keys, payload, left, mid);
+
+            int p = keys[left];
+            int i = left;
+            int j = right + 1;
+            while (true) {
+                while (keys[++i] < p) {
+                    if (i == right) {
+                        break;
+                    }
+                }
+                while (p < keys[--j]) {
+                }
+                if (i >= j) {
+                    break;
+                }
+                swap(keys, payload, i, j);
+            }
+            swap(keys, payload, left, j);
+
+            /// Recurse into the smaller side, loop on the larger to bound stack depth
+            if (j - left < right - j) {
+                sort(keys, left, j - 1, payload);
+                left = j + 1;
+            } else {
+                sort(keys, j + 1, right, payload);
+                right = j - 1;
+            }
+        }
+
+        /// Insertion sort what is left
+        for (int i = left + 1; i <= right; i++) {
+            for (int k = i; k > left && keys[k - 1] > keys[k]; k--) {
+                swap(keys, payload, k, k - 1);
+            }
+        }
+    }
+
+    /**
+     * Quicksort of long keys over [left, right]
+     */
+    public static void sort(long[] keys, int left, int right, Payload payload) {
+        while (right - left > INSERTION_THRESHOLD) {
+            /// Median of three into the middle, then move it to the left for hoare
+            int mid = (left + right) >>> 1;
+            if (keys[right] < keys[left]) {
+                swap(keys, payload, left, right);
+            }
+            if (keys[mid] < keys[left]) {
+                swap(keys, payload, mid, left);
+            }
+            if (keys[right] < keys[mid]) {
+                swap(keys, payload, right, mid);
+            }
+            swap(keys, payload, left, mid);
+
+            long p = keys[left];
+            int i = left;
+            int j = right + 1;
+            while (true) {
+                while (keys[++i] < p) {
+                    if (i == right) {
+                        break;
+                    }
+                }
+                while (p < keys[--j]) {
+                }
+                if (i >= j) {
+                    break;
+                }
+                swap(keys, payload, i, j);
+            }
+            swap(keys, payload, left, j);
+
+            /// Recurse into the smaller side, loop on the larger to bound stack depth
+            if (j - left < right - j) {
+                sort(keys, left, j - 1, payload);
+                left = j + 1;
+            } else {
+                sort(keys, j + 1, right, payload);
+                right = j - 1;
+            }
+        }
+
+        /// Insertion sort what is left
+        for (int i = left + 1; i <= right; i++) {
+            for (int k = i; k > left && keys[k - 1] > keys[k]; k--) {
+                swap(keys, payload, k, k - 1);
+            }
+        }
+    }
+}
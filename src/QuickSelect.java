@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * Selection with the quicksort building blocks of a TestSetup: nth element, top k and several ranks at once.
+ * Each partition step only continues into the side that holds a wanted rank, so one rank costs O(n)
+ * on average instead of the O(n log n) of a full sort. Ranks are 0-based positions in sorted order.
+ */
+public class QuickSelect {
+    /**
+     * Rearrange array so array[k] holds the value a full sort would put there,
+     * with nothing greater before it and nothing smaller after it
+     *
+     * @param array            Array to rearrange
+     * @param k                Rank to place
+     * @param setup            Pivot picker, partitioner and subsort to use
+     * @return the k-th smallest value
+     */
+    public static int select(int[] array, int k, Quick.TestSetup setup) {
+        if (k < 0 || k >= array.length) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for length " + array.length);
+        }
+        select(array, 0, array.length - 1, k, setup);
+        return array[k];
+    }
+
+    /**
+     * Place the k smallest values at the front of array in sorted order, leaving the rest in any order
+     *
+     * @param array            Array to rearrange
+     * @param k                How many of the smallest values to sort, 0 to array.length
+     * @param setup            Configuration for the selection and for sorting the front
+     */
+    public static void partialSort(int[] array, int k, Quick.TestSetup setup) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Top " + k + " out of range for length " + array.length);
+        }
+        if (k == 0) {
+            return;
+        }
+        int last = k - 1;
+        if (k < array.length) {
+            // array[k - 1] is then in place, everything before it is smaller or equal
+            select(array, 0, array.length - 1, k - 1, setup);
+            last = k - 2;
+        }
+        if (last < 1) {
+            return;
+        }
+        Quick.sort(array, 0, last, setup);
+        if (setup.sortFinal) {
+            setup.ssort.sort(array, 0, last);
+        }
+    }
+
+    /**
+     * Values at several ranks in one pass: each partition step splits the wanted ranks between its sides
+     * and only sides that still hold one are partitioned further
+     *
+     * @param array            Array to rearrange
+     * @param ranks            Ranks to place, in any order and with repeats
+     * @param setup            Pivot picker, partitioner and subsort to use
+     * @return the value at each rank, in the order of ranks
+     */
+    public static int[] multiSelect(int[] array, int[] ranks, Quick.TestSetup setup) {
+        int[] sorted = Arrays.copyOf(ranks, ranks.length);
+        Arrays.sort(sorted);
+        if (sorted.length > 0 && (sorted[0] < 0 || sorted[sorted.length - 1] >= array.length)) {
+            throw new IllegalArgumentException("Ranks " + Arrays.toString(ranks) + " out of range for length " + array.length);
+        }
+        multiSelect(array, 0, array.length - 1, sorted, 0, sorted.length - 1, setup);
+
+        int[] values = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            values[i] = array[ranks[i]];
+        }
+        return values;
+    }
+
+    /**
+     * Nearest-rank percentiles, such as 50 for the median or 99 for p99, found with multiSelect
+     *
+     * @param array            Array to rearrange
+     * @param percents         Percentiles to find, each in [0, 100]
+     * @param setup            Pivot picker, partitioner and subsort to use
+     * @return the value at each percentile, in the order of percents
+     */
+    public static int[] percentiles(int[] array, double[] percents, Quick.TestSetup setup) {
+        int[] ranks = new int[percents.length];
+        for (int i = 0; i < percents.length; i++) {
+            int rank = (int) Math.ceil(percents[i] / 100.0 * array.length) - 1;
+            ranks[i] = Math.max(0, Math.min(array.length - 1, rank));
+        }
+        return multiSelect(array, ranks, setup);
+    }
+
+    /**
+     * Narrow [left, right] around k until k is in its final place
+     */
+    static void select(int[] array, int left, int right, int k, Quick.TestSetup setup) {
+        while (right > left) {
+            // Small spans go to the subsort, deferred or not, since nothing will sort them later
+            if (right - left <= setup.sst && setup.ssort != null) {
+                setup.ssort.sort(array, left, right);
+                return;
+            }
+
+            int pivot = setup.pivp.getPivot(array, left, right);
+
+            if (setup.rpart != null) {
+                long range = setup.rpart.partition(array, left, right, pivot);
+                int lo = Quick.rangeLow(range);
+                int hi = Quick.rangeHigh(range);
+                if (k < lo) {
+                    right = lo - 1;
+                } else if (k > hi) {
+                    left = hi + 1;
+                } else if (k == lo || k == hi || array[lo] == array[hi]) {
+                    return;
+                } else {
+                    left = lo + 1;
+                    right = hi - 1;
+                }
+                continue;
+            }
+
+            int p = setup.part.partition(array, left, right, pivot);
+            if (k == p) {
+                return;
+            }
+            if (k < p) {
+                right = p - 1;
+            } else {
+                left = p + 1;
+            }
+        }
+    }
+
+    /**
+     * Place sorted ranks [from, to] inside array[left..right]
+     */
+    private static void multiSelect(int[] array, int left, int right, int[] ranks, int from, int to,
+                                    Quick.TestSetup setup) {
+        while (from <= to && right > left) {
+            // One rank left, plain selection needs no rank bookkeeping
+            if (from == to || ranks[from] == ranks[to]) {
+                select(array, left, right, ranks[from], setup);
+                return;
+            }
+            if (right - left <= setup.sst && setup.ssort != null) {
+                setup.ssort.sort(array, left, right);
+                return;
+            }
+
+            int pivot = setup.pivp.getPivot(array, left, right);
+            int lo;
+            int hi;
+            if (setup.rpart != null) {
+                long range = setup.rpart.partition(array, left, right, pivot);
+                lo = Quick.rangeLow(range);
+                hi = Quick.rangeHigh(range);
+            } else {
+                lo = setup.part.partition(array, left, right, pivot);
+                hi = lo;
+            }
+
+            // Ranks below lo, and above hi, still need work
+            int belowEnd = firstAtLeast(ranks, from, to + 1, lo);
+            int aboveStart = firstAtLeast(ranks, belowEnd, to + 1, hi + 1);
+            multiSelect(array, left, lo - 1, ranks, from, belowEnd - 1, setup);
+
+            // A three-way middle holding wanted ranks needs partitioning too, unless it is all one value
+            if (hi > lo + 1 && array[lo] != array[hi]) {
+                int middleStart = firstAtLeast(ranks, belowEnd, aboveStart, lo + 1);
+                int middleEnd = firstAtLeast(ranks, middleStart, aboveStart, hi);
+                multiSelect(array, lo + 1, hi - 1, ranks, middleStart, middleEnd - 1, setup);
+            }
+
+            // Continue on the right side without recursing
+            left = hi + 1;
+            from = aboveStart;
+        }
+    }
+
+    /**
+     * First index in [from, to) of sorted ranks holding a value of at least rank
+     */
+    private static int firstAtLeast(int[] ranks, int from, int to, int rank) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (ranks[mid] < rank) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+}
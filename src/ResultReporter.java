@@ -0,0 +1,235 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes test results to a file as each one finishes, so a long sweep can be watched while it runs
+ * and a killed run keeps everything finished so far. Every line is flushed once written.
+ * For each size a row carries the average, min, median, p90, p99, max and standard deviation of
+ * the per-rep durations (ns) and the throughput in elements per second, plus SortMetrics when on.
+ */
+public abstract class ResultReporter implements AutoCloseable {
+    private final BufferedWriter out;
+
+    protected ResultReporter(Path target) {
+        try {
+            out = Files.newBufferedWriter(target, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * CSV, one row per test with a block of columns per size
+     */
+    static ResultReporter csv(Path target, int[] sizes) {
+        return new Csv(target, sizes);
+    }
+
+    /**
+     * JSON Lines, one object per test and size
+     */
+    static ResultReporter jsonLines(Path target) {
+        return new JsonLines(target);
+    }
+
+    /**
+     * Append one finished test. Safe to call from several runner threads
+     */
+    public synchronized void report(Quick.TestResult result) {
+        try {
+            write(result);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void write(Quick.TestResult result) throws IOException;
+
+    protected void writeLine(CharSequence line) throws IOException {
+        out.append(line);
+        out.newLine();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Summary of the per-rep durations of one size
+     */
+    static final class Stats {
+        public final long min;
+        public final long median;
+        public final long p90;
+        public final long p99;
+        public final long max;
+        public final double mean;
+        public final double stddev;
+        /// Elements sorted per second at the mean duration
+        public final double throughput;
+
+        Stats(int size, List<Long> durations) {
+            List<Long> sorted = new ArrayList<>(durations);
+            Collections.sort(sorted);
+            if (sorted.isEmpty()) {
+                sorted.add(0L);
+            }
+
+            double total = 0;
+            for (long duration : sorted) {
+                total += duration;
+            }
+            mean = total / sorted.size();
+            double squares = 0;
+            for (long duration : sorted) {
+                squares += (duration - mean) * (duration - mean);
+            }
+            stddev = Math.sqrt(squares / sorted.size());
+
+            min = sorted.get(0);
+            max = sorted.get(sorted.size() - 1);
+            median = percentile(sorted, 50);
+            p90 = percentile(sorted, 90);
+            p99 = percentile(sorted, 99);
+            throughput = mean > 0 ? size * 1e9 / mean : 0;
+        }
+
+        /// Nearest-rank percentile of a sorted, non-empty list
+        private static long percentile(List<Long> sorted, int percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+            return sorted.get(Math.max(rank, 1) - 1);
+        }
+    }
+
+    /**
+     * Noise share as written to the reports, empty when the engine sorts on other threads (NaN)
+     */
+    static String noise(double noise) {
+        return Double.isNaN(noise) ? "" : String.format(Locale.ROOT, "%.4f", noise);
+    }
+
+    private static final class Csv extends ResultReporter {
+        Csv(Path target, int[] sizes) {
+            super(target);
+            StringBuilder str = new StringBuilder("Name");
+            for (int size : sizes) {
+                /// First column per size keeps the old name so existing sheets still line up
+                str.append(", Size of ").append(size);
+                str.append(", Min at ").append(size);
+                str.append(", Median at ").append(size);
+                str.append(", P90 at ").append(size);
+                str.append(", P99 at ").append(size);
+                str.append(", Max at ").append(size);
+                str.append(", Stddev at ").append(size);
+                str.append(", Elements/s at ").append(size);
+                str.append(", Noise at ").append(size);
+            }
+            if (SortMetrics.ENABLED) {
+                for (int size : sizes) {
+                    str.append(", Comparisons at ").append(size);
+                    str.append(", Moves at ").append(size);
+                    str.append(", Max depth at ").append(size);
+                    str.append(", Subsort calls at ").append(size);
+                    str.append(", Split balance at ").append(size);
+                }
+            }
+            try {
+                writeLine(str);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        protected void write(Quick.TestResult result) throws IOException {
+            StringBuilder str = new StringBuilder(result.setup.name);
+            for (int i = 0; i < result.dataSize.size(); i++) {
+                Stats stats = new Stats(result.dataSize.get(i), result.durations.get(i));
+                str.append(',').append(result.averageDuration.get(i));
+                str.append(',').append(stats.min);
+                str.append(',').append(stats.median);
+                str.append(',').append(stats.p90);
+                str.append(',').append(stats.p99);
+                str.append(',').append(stats.max);
+                str.append(',').append(String.format(Locale.ROOT, "%.1f", stats.stddev));
+                str.append(',').append(String.format(Locale.ROOT, "%.0f", stats.throughput));
+                str.append(',').append(noise(result.noise.get(i)));
+            }
+            for (SortMetrics.Snapshot metrics : result.metrics) {
+                str.append(',').append(metrics.comparisons);
+                str.append(',').append(metrics.moves);
+                str.append(',').append(metrics.maxDepth);
+                str.append(',').append(metrics.subsortCalls);
+                str.append(',').append(metrics.imbalanceString());
+            }
+            writeLine(str);
+        }
+    }
+
+    private static final class JsonLines extends ResultReporter {
+        JsonLines(Path target) {
+            super(target);
+        }
+
+        @Override
+        protected void write(Quick.TestResult result) throws IOException {
+            for (int i = 0; i < result.dataSize.size(); i++) {
+                int size = result.dataSize.get(i);
+                Stats stats = new Stats(size, result.durations.get(i));
+                StringBuilder str = new StringBuilder("{\"name\":");
+                quote(str, result.setup.name);
+                str.append(",\"size\":").append(size);
+                str.append(",\"reps\":").append(result.durations.get(i).size());
+                str.append(",\"mean\":").append(result.averageDuration.get(i));
+                str.append(",\"min\":").append(stats.min);
+                str.append(",\"median\":").append(stats.median);
+                str.append(",\"p90\":").append(stats.p90);
+                str.append(",\"p99\":").append(stats.p99);
+                str.append(",\"max\":").append(stats.max);
+                str.append(",\"stddev\":").append(String.format(Locale.ROOT, "%.1f", stats.stddev));
+                str.append(",\"elementsPerSecond\":").append(String.format(Locale.ROOT, "%.0f", stats.throughput));
+                str.append(",\"noise\":").append(result.noise.get(i).isNaN() ? "null" : noise(result.noise.get(i)));
+                str.append(",\"durations\":").append(result.durations.get(i).toString().replace(" ", ""));
+                if (i < result.metrics.size()) {
+                    SortMetrics.Snapshot metrics = result.metrics.get(i);
+                    str.append(",\"comparisons\":").append(metrics.comparisons);
+                    str.append(",\"moves\":").append(metrics.moves);
+                    str.append(",\"maxDepth\":").append(metrics.maxDepth);
+                    str.append(",\"subsortCalls\":").append(metrics.subsortCalls);
+                    str.append(",\"splitBalance\":[").append(metrics.imbalanceString().replace('|', ',')).append(']');
+                }
+                str.append('}');
+                writeLine(str);
+            }
+        }
+
+        private static void quote(StringBuilder str, String text) {
+            str.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    str.append('\\').append(c);
+                } else if (c < 0x20) {
+                    str.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                } else {
+                    str.append(c);
+                }
+            }
+            str.append('"');
+        }
+    }
+}
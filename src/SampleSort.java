@@ -0,0 +1,192 @@
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Engine that sorts with a parallel sample sort, so no single pass over the whole array runs on one thread.
+ * A regular sample of the array is sorted with the setup's own quicksort (so its PivotPicker and
+ * Partitioner choose the splitters), and every element is sent to the bucket between two splitters,
+ * or to an equality bucket when it matches a splitter exactly. Each chunk of the array counts its
+ * elements per bucket, the counts are turned into write offsets, and the chunks scatter in parallel.
+ * Buckets are then sorted with the setup's quicksort, again in parallel, and copied back.
+ */
+public class SampleSort implements Quick.Engine {
+    /// Buckets per thread, more than one so a bucket that comes out large doesn't hold up the rest
+    static final int BUCKETS_PER_THREAD = 8;
+    /// Sample elements per bucket, more means more even buckets
+    static final int OVERSAMPLING = 32;
+    /// Below this many elements the setup's quicksort runs on the calling thread
+    static final int MIN_SIZE = 1 << 14;
+
+    private final int threads;
+    /// Started on the first sort, so building getTests() doesn't start any threads
+    private volatile SortPool pool;
+
+    /**
+     * @param threads          Parallelism of the pool, and the number of chunks scattered at once
+     */
+    public SampleSort(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void sort(int[] array, Quick.TestSetup setup) {
+        int n = array.length;
+        if (n < MIN_SIZE) {
+            Quick.sort(array, 0, n - 1, setup);
+            return;
+        }
+
+        pool().claim();
+        int[] splitters = pickSplitters(array, setup, threads * BUCKETS_PER_THREAD);
+        // Bucket 2i holds values between splitters i - 1 and i, bucket 2i + 1 values equal to splitter i
+        int buckets = 2 * splitters.length + 1;
+        // Both stay with the calling thread between sorts; pool threads only get them through the tasks.
+        // They are Scratch fields of their own, the subsorts use buffer() on whatever thread runs them
+        Quick.Scratch scratch = Quick.SCRATCH.get();
+        int[] target = scratch.scatter(n);
+        char[] bucketOf = scratch.bucketOf(n);
+
+        int chunks = threads;
+        int chunkSize = (n + chunks - 1) / chunks;
+        int[][] counts = new int[chunks][buckets];
+
+        /// Classify, counting per chunk so no two threads touch the same histogram
+        forEach(chunks, c -> {
+            int[] count = counts[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                int b = bucket(splitters, array[i]);
+                bucketOf[i] = (char) b;
+                count[b]++;
+            }
+        });
+
+        /// Turn counts into the write position of each chunk within each bucket
+        int[] bucketStart = new int[buckets + 1];
+        int position = 0;
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b] = position;
+            for (int c = 0; c < chunks; c++) {
+                int count = counts[c][b];
+                counts[c][b] = position;
+                position += count;
+            }
+        }
+        bucketStart[buckets] = n;
+
+        forEach(chunks, c -> {
+            int[] next = counts[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                target[next[bucketOf[i]]++] = array[i];
+            }
+        });
+
+        /// Sort the range buckets (equality buckets are already done) and copy every bucket back
+        forEach(buckets, b -> {
+            int from = bucketStart[b];
+            int to = bucketStart[b + 1];
+            if ((b & 1) == 0) {
+                // Buckets are neighbours in target, Partitioner only touching [from, to) keeps them apart
+                Quick.sort(target, from, to - 1, setup);
+            }
+            System.arraycopy(target, from, array, from, to - from);
+        });
+    }
+
+    @Override
+    public boolean singleThreaded() {
+        return false;
+    }
+
+    /**
+     * Sort a regular sample with the setup's quicksort and take evenly spaced, distinct splitters from it
+     */
+    static int[] pickSplitters(int[] array, Quick.TestSetup setup, int buckets) {
+        int n = array.length;
+        int sampleSize = Math.min(n, buckets * OVERSAMPLING);
+        int[] sample = new int[sampleSize];
+        long stride = n / sampleSize;
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = array[(int) (i * stride + stride / 2)];
+        }
+        Quick.sort(sample, 0, sampleSize - 1, setup);
+        // A sortFinal setup leaves short spans for one pass at the end, and bucket() needs the splitters in order.
+        // Not runSort, which would hand the sample back to this engine
+        if (setup.sortFinal) {
+            setup.ssort.sort(sample, 0, sampleSize - 1);
+        }
+
+        int[] splitters = new int[buckets - 1];
+        int count = 0;
+        for (int i = 1; i < buckets; i++) {
+            int splitter = sample[i * sampleSize / buckets];
+            if (count == 0 || splitters[count - 1] != splitter) {
+                splitters[count++] = splitter;
+            }
+        }
+        return Arrays.copyOf(splitters, count);
+    }
+
+    /**
+     * Bucket of value: 2i + 1 if it equals splitters[i], otherwise 2i where i splitters are smaller
+     */
+    static int bucket(int[] splitters, int value) {
+        int lo = 0;
+        int hi = splitters.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (splitters[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < splitters.length && splitters[lo] == value ? 2 * lo + 1 : 2 * lo;
+    }
+
+    private SortPool pool() {
+        SortPool started = pool;
+        if (started == null) {
+            synchronized (this) {
+                started = pool;
+                if (started == null) {
+                    pool = started = new SortPool(threads);
+                }
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Run body for every index in [0, count) on the pool
+     */
+    private void forEach(int count, IntConsumer body) {
+        pool().invoke(new ForEachTask(0, count, body));
+    }
+
+    private static class ForEachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        ForEachTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ForEachTask(from, mid, body), new ForEachTask(mid, to, body));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Recursive quicksort bound to one configuration, the same algorithm as Quick.sort(int[], int, int, TestSetup).
+ * SpecializedSort loads a fresh copy of this class for every configuration, so the JIT profiles each
+ * copy's pivot picker, partitioner and subsort calls separately: they only ever see one receiver type,
+ * stay monomorphic and get inlined, however many other configurations ran in the same JVM first.
+ * Keep this class free of lambdas and nested classes, the copies are made from its bytes alone.
+ */
+public class SortKernel implements Quick.Engine {
+    private final Quick.PivotPicker pivp;
+    private final Quick.Partitioner part;
+    private final Quick.RangePartitioner rpart;
+    private final int sst;
+    private final Quick.Subsort ssort;
+    private final boolean sortFinal;
+
+    public SortKernel(Quick.TestSetup setup) {
+        this.pivp = setup.pivp;
+        this.part = setup.part;
+        this.rpart = setup.rpart;
+        this.sst = setup.sst;
+        this.ssort = setup.ssort;
+        this.sortFinal = setup.sortFinal;
+    }
+
+    @Override
+    public void sort(int[] array, Quick.TestSetup setup) {
+        sort(array, 0, array.length - 1);
+    }
+
+    private void sort(int[] array, int left, int right) {
+        int span = right - left;
+        if (span < 1) {
+            return;
+        }
+        if (span < 2) {
+            if (array[left] > array[right]) {
+                Quick.swap(array, left, right);
+            }
+            return;
+        }
+        if (span <= sst && ssort != null) {
+            if (!sortFinal) {
+                if (SortMetrics.ENABLED) {
+                    SortMetrics.get().subsortCalls++;
+                }
+                ssort.sort(array, left, right);
+            }
+            return;
+        }
+
+        int pivot = pivp.getPivot(array, left, right);
+
+        if (rpart != null) {
+            long range = rpart.partition(array, left, right, pivot);
+            int lo = Quick.rangeLow(range);
+            int hi = Quick.rangeHigh(range);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.Counters counters = SortMetrics.get();
+                counters.partitioned(left, right, lo, hi);
+                counters.enter();
+            }
+            sort(array, left, lo - 1);
+            if (array[lo] != array[hi]) {
+                sort(array, lo + 1, hi - 1);
+            }
+            sort(array, hi + 1, right);
+            if (SortMetrics.ENABLED) {
+                SortMetrics.get().exit();
+            }
+            return;
+        }
+
+        int p = part.partition(array, left, right, pivot);
+        if (SortMetrics.ENABLED) {
+            SortMetrics.Counters counters = SortMetrics.get();
+            counters.partitioned(left, right, p, p);
+            counters.enter();
+        }
+        sort(array, left, p - 1);
+        sort(array, p + 1, right);
+        if (SortMetrics.ENABLED) {
+            SortMetrics.get().exit();
+        }
+    }
+}
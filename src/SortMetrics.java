@@ -0,0 +1,183 @@
+import java.util.function.Consumer;
+
+/**
+ * Opt-in counters for what the sorts do: comparisons, element moves, recursion depth,
+ * how evenly partitions split, and how often the subsort runs.
+ * Turned on with -Dquick.metrics=true. ENABLED is a static final constant, so when it is off
+ * the JIT removes every `if (SortMetrics.ENABLED)` block and the sorts run exactly as before.
+ * Counters are per thread (no contention from parallel sorts). reset() and snapshot() only see the
+ * calling thread's counters and those of the SortPools it claimed, so runs on different runner
+ * threads don't mix.
+ */
+public class SortMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("quick.metrics");
+
+    /// Partition balance histogram: bucket i counts splits whose smaller side is [5i%, 5i+5%) of the range
+    public static final int IMBALANCE_BUCKETS = 10;
+
+    /**
+     * One thread's counters
+     */
+    static final class Counters {
+        long comparisons;
+        long moves;
+        long subsortCalls;
+        int depth;
+        int maxDepth;
+        final long[] imbalance = new long[IMBALANCE_BUCKETS + 1];
+
+        /**
+         * Record a split of [left, right] around the pivot range [lo, hi]
+         */
+        void partitioned(int left, int right, int lo, int hi) {
+            int span = right - left;
+            int smaller = Math.min(lo - left, right - hi);
+            imbalance[(int) ((long) smaller * 2 * IMBALANCE_BUCKETS / Math.max(span, 1))]++;
+        }
+
+        void enter() {
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        void exit() {
+            depth--;
+        }
+
+        /**
+         * Add the counts of other, keeping the deeper max depth
+         */
+        void add(Counters other) {
+            comparisons += other.comparisons;
+            moves += other.moves;
+            subsortCalls += other.subsortCalls;
+            maxDepth = Math.max(maxDepth, other.maxDepth);
+            for (int i = 0; i < imbalance.length; i++) {
+                imbalance[i] += other.imbalance[i];
+            }
+        }
+
+        void reset() {
+            comparisons = 0;
+            moves = 0;
+            subsortCalls = 0;
+            depth = 0;
+            maxDepth = 0;
+            java.util.Arrays.fill(imbalance, 0);
+        }
+    }
+
+    /**
+     * Totals over one runner thread and the workers of the pools it claimed
+     */
+    public static final class Snapshot {
+        public long comparisons;
+        public long moves;
+        public long subsortCalls;
+        public int maxDepth;
+        public final long[] imbalance = new long[IMBALANCE_BUCKETS];
+
+        /**
+         * Add another snapshot to this one, keeping the deeper max depth
+         */
+        public void add(Snapshot other) {
+            comparisons += other.comparisons;
+            moves += other.moves;
+            subsortCalls += other.subsortCalls;
+            maxDepth = Math.max(maxDepth, other.maxDepth);
+            for (int i = 0; i < IMBALANCE_BUCKETS; i++) {
+                imbalance[i] += other.imbalance[i];
+            }
+        }
+
+        /**
+         * Divide the counts, for averaging over iterations
+         */
+        public void divide(int n) {
+            comparisons /= n;
+            moves /= n;
+            subsortCalls /= n;
+            for (int i = 0; i < IMBALANCE_BUCKETS; i++) {
+                imbalance[i] /= n;
+            }
+        }
+
+        /**
+         * Histogram as "b0|b1|..." so it fits in one CSV cell
+         */
+        public String imbalanceString() {
+            StringBuilder str = new StringBuilder();
+            for (int i = 0; i < IMBALANCE_BUCKETS; i++) {
+                if (i > 0) {
+                    str.append('|');
+                }
+                str.append(imbalance[i]);
+            }
+            return str.toString();
+        }
+
+        /**
+         * Space separated counts, read back by parse
+         */
+        @Override
+        public String toString() {
+            return comparisons + " " + moves + " " + subsortCalls + " " + maxDepth + " " + imbalanceString();
+        }
+
+        public static Snapshot parse(String text) {
+            String[] parts = text.split(" ");
+            Snapshot snapshot = new Snapshot();
+            snapshot.comparisons = Long.parseLong(parts[0]);
+            snapshot.moves = Long.parseLong(parts[1]);
+            snapshot.subsortCalls = Long.parseLong(parts[2]);
+            snapshot.maxDepth = Integer.parseInt(parts[3]);
+            String[] buckets = parts[4].split("\\|");
+            for (int i = 0; i < IMBALANCE_BUCKETS; i++) {
+                snapshot.imbalance[i] = Long.parseLong(buckets[i]);
+            }
+            return snapshot;
+        }
+    }
+
+    /// Pool workers count into their own SortPool.Worker counters, any other thread into counters of its own
+    private static final ThreadLocal<Counters> COUNTERS = ThreadLocal.withInitial(() -> {
+        Thread thread = Thread.currentThread();
+        return thread instanceof SortPool.Worker ? ((SortPool.Worker) thread).counters : new Counters();
+    });
+
+    /**
+     * Counters of the current thread. Only call inside `if (SortMetrics.ENABLED)`
+     */
+    static Counters get() {
+        return COUNTERS.get();
+    }
+
+    /**
+     * Zero the counters owned by the calling thread. Call between sorts, not during one
+     */
+    public static void reset() {
+        get().reset();
+        SortPool.forEachClaimed(Counters::reset);
+    }
+
+    /**
+     * Sum the counters owned by the calling thread. Call after a sort has finished
+     */
+    public static Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        Consumer<Counters> sum = counters -> {
+            snapshot.comparisons += counters.comparisons;
+            snapshot.moves += counters.moves;
+            snapshot.subsortCalls += counters.subsortCalls;
+            snapshot.maxDepth = Math.max(snapshot.maxDepth, counters.maxDepth);
+            for (int i = 0; i < IMBALANCE_BUCKETS; i++) {
+                snapshot.imbalance[i] += counters.imbalance[i];
+            }
+            // A perfect split lands exactly on 50%, count it in the top bucket
+            snapshot.imbalance[IMBALANCE_BUCKETS - 1] += counters.imbalance[IMBALANCE_BUCKETS];
+        };
+        sum.accept(get());
+        SortPool.forEachClaimed(sum);
+        return snapshot;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+
+/**
+ * ForkJoinPool for the parallel engines. With SortMetrics on, every worker counts into counters of its own,
+ * and the pool lends them to the runner thread that claimed it for the current sort, so runs on different
+ * runner threads don't mix. A worker that times out folds its counts into the pool's retired counters,
+ * so a pool only ever holds one set of counters per live worker plus one.
+ */
+final class SortPool extends ForkJoinPool {
+    /// Pools the current runner thread has claimed, some may have been claimed by another runner since
+    private static final ThreadLocal<Set<SortPool>> CLAIMED = ThreadLocal.withInitial(LinkedHashSet::new);
+
+    private final List<SortMetrics.Counters> workers = new CopyOnWriteArrayList<>();
+    private final SortMetrics.Counters retired = new SortMetrics.Counters();
+    private volatile Thread owner;
+
+    /**
+     * @param threads          Parallelism of the pool
+     */
+    SortPool(int threads) {
+        super(threads, Worker::new, null, false);
+    }
+
+    /**
+     * Worker thread with the counters SortMetrics.get() returns on it
+     */
+    static final class Worker extends ForkJoinWorkerThread {
+        final SortMetrics.Counters counters = new SortMetrics.Counters();
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            if (SortMetrics.ENABLED) {
+                ((SortPool) getPool()).workers.add(counters);
+            }
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            if (SortMetrics.ENABLED) {
+                ((SortPool) getPool()).retire(counters);
+            }
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * Count the workers' work towards the calling thread from now on. Call before each sort
+     */
+    void claim() {
+        if (SortMetrics.ENABLED && owner != Thread.currentThread()) {
+            owner = Thread.currentThread();
+            CLAIMED.get().add(this);
+            // The previous owner already read what the workers counted for it, and this one's reset() came first
+            forEachCounters(SortMetrics.Counters::reset);
+        }
+    }
+
+    private synchronized void retire(SortMetrics.Counters counters) {
+        retired.add(counters);
+        workers.remove(counters);
+    }
+
+    private synchronized void forEachCounters(Consumer<SortMetrics.Counters> action) {
+        action.accept(retired);
+        workers.forEach(action);
+    }
+
+    /**
+     * Run action on the counters of every pool the calling thread owns
+     */
+    static void forEachClaimed(Consumer<SortMetrics.Counters> action) {
+        Thread caller = Thread.currentThread();
+        Set<SortPool> claimed = CLAIMED.get();
+        claimed.removeIf(pool -> pool.owner != caller);
+        for (SortPool pool : claimed) {
+            pool.forEachCounters(action);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sorted multiset of ints that takes values in batches without re-sorting what it already holds.
+ * Each batch is sorted with the buffer's TestSetup and kept as an immutable sorted run. Runs live in
+ * tiers by length: tier t holds runs of up to BASE_RUN * FANOUT^t values, and once a tier has FANOUT runs
+ * they are merged into one run for a higher tier, as in a tiered log-structured merge. Every value is
+ * therefore merged O(log n) times in total, and a query only has to look at O(FANOUT log n) runs.
+ * Iterators and range queries work on the runs present when they start, later adds don't affect them.
+ */
+public class SortedBuffer implements Iterable<Integer> {
+    /// Runs merged together when a tier fills up
+    static final int FANOUT = 4;
+    /// Longest run that stays in tier 0
+    static final int BASE_RUN = 256;
+
+    private final Quick.TestSetup setup;
+    private final List<List<int[]>> tiers = new ArrayList<>();
+    private long size;
+
+    /**
+     * @param setup            Configuration used to sort incoming batches
+     */
+    public SortedBuffer(Quick.TestSetup setup) {
+        this.setup = setup;
+    }
+
+    /**
+     * Add every value of batch, leaving batch itself unchanged
+     */
+    public void add(int[] batch) {
+        add(batch, 0, batch.length);
+    }
+
+    /**
+     * Add batch[from..to)
+     */
+    public void add(int[] batch, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        int[] run = Arrays.copyOfRange(batch, from, to);
+        Quick.runSort(run, setup);
+        size += run.length;
+        place(run, tierOf(run.length));
+    }
+
+    /**
+     * Number of values held
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Number of sorted runs a query currently has to consult
+     */
+    public int runCount() {
+        int count = 0;
+        for (List<int[]> tier : tiers) {
+            count += tier.size();
+        }
+        return count;
+    }
+
+    /**
+     * Number of values in [low, high]
+     */
+    public long count(int low, int high) {
+        long count = 0;
+        for (int[] run : runs()) {
+            count += Math.max(0, end(run, high) - start(run, low));
+        }
+        return count;
+    }
+
+    /**
+     * All values in [low, high], sorted
+     */
+    public int[] range(int low, int high) {
+        List<int[]> runs = runs();
+        // Only runs with values in range become runs of the result, mergeRuns expects none to be empty
+        int[][] slices = new int[runs.size()][];
+        int[] starts = new int[runs.size()];
+        int[] bounds = new int[runs.size() + 1];
+        int count = 0;
+        for (int[] run : runs) {
+            int start = start(run, low);
+            int length = end(run, high) - start;
+            if (length > 0) {
+                slices[count] = run;
+                starts[count] = start;
+                bounds[count + 1] = bounds[count] + length;
+                count++;
+            }
+        }
+        int[] values = new int[bounds[count]];
+        for (int s = 0; s < count; s++) {
+            System.arraycopy(slices[s], starts[s], values, bounds[s], bounds[s + 1] - bounds[s]);
+        }
+        Quick.AdaptiveSort.mergeRuns(values, Arrays.copyOf(bounds, count + 1));
+        return values;
+    }
+
+    /**
+     * Every value, sorted. Also merges all runs into one, so later queries only consult that run
+     */
+    public int[] toArray() {
+        List<int[]> runs = runs();
+        if (runs.isEmpty()) {
+            return new int[0];
+        }
+        int[] all = runs.size() == 1 ? runs.get(0) : merge(runs);
+        tiers.clear();
+        place(all, tierOf(all.length));
+        return all.clone();
+    }
+
+    /**
+     * Values in ascending order, merged on the fly from the runs present now
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        int[][] runs = runs().toArray(new int[0][]);
+        int[] next = new int[runs.length];
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                for (int r = 0; r < runs.length; r++) {
+                    if (next[r] < runs[r].length) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public int nextInt() {
+                // Runs are few, a linear scan for the smallest head beats keeping a heap
+                int best = -1;
+                for (int r = 0; r < runs.length; r++) {
+                    if (next[r] < runs[r].length && (best < 0 || runs[r][next[r]] < runs[best][next[best]])) {
+                        best = r;
+                    }
+                }
+                if (best < 0) {
+                    throw new NoSuchElementException();
+                }
+                return runs[best][next[best]++];
+            }
+        };
+    }
+
+    /**
+     * Put run into tier, cascading merges up while tiers are full
+     */
+    private void place(int[] run, int tier) {
+        while (true) {
+            while (tiers.size() <= tier) {
+                tiers.add(new ArrayList<>(FANOUT));
+            }
+            List<int[]> runs = tiers.get(tier);
+            runs.add(run);
+            if (runs.size() < FANOUT) {
+                return;
+            }
+            run = merge(runs);
+            runs.clear();
+            tier = Math.max(tier + 1, tierOf(run.length));
+        }
+    }
+
+    /**
+     * Smallest tier whose run length limit fits length
+     */
+    static int tierOf(long length) {
+        int tier = 0;
+        for (long limit = BASE_RUN; limit < length; limit *= FANOUT) {
+            tier++;
+        }
+        return tier;
+    }
+
+    /**
+     * One sorted run holding the values of all runs
+     */
+    private static int[] merge(List<int[]> runs) {
+        int[] bounds = new int[runs.size() + 1];
+        for (int r = 0; r < runs.size(); r++) {
+            bounds[r + 1] = bounds[r] + runs.get(r).length;
+        }
+        int[] merged = new int[bounds[runs.size()]];
+        for (int r = 0; r < runs.size(); r++) {
+            System.arraycopy(runs.get(r), 0, merged, bounds[r], runs.get(r).length);
+        }
+        Quick.AdaptiveSort.mergeRuns(merged, bounds);
+        return merged;
+    }
+
+    /**
+     * Current runs, largest tier first
+     */
+    private List<int[]> runs() {
+        List<int[]> runs = new ArrayList<>();
+        for (int t = tiers.size() - 1; t >= 0; t--) {
+            runs.addAll(tiers.get(t));
+        }
+        return runs;
+    }
+
+    /// First index of run holding a value of at least low
+    private static int start(int[] run, int low) {
+        return Quick.AdaptiveSort.gallopLeft(run, 0, run.length, low);
+    }
+
+    /// First index of run holding a value greater than high
+    private static int end(int[] run, int high) {
+        return Quick.AdaptiveSort.gallopRight(run, 0, run.length, high);
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine that sorts with a private copy of SortKernel bound to the setup's configuration.
+ * The copy is SortKernel's bytecode renamed to SortKernel$N and defined next to it with
+ * Lookup.defineClass, so it shares Quick's package access but none of SortKernel's JIT profile.
+ * The copy is made on the first sort, so building getTests() stays cheap.
+ */
+public class SpecializedSort implements Quick.Engine {
+    private static final String TEMPLATE_NAME = SortKernel.class.getName();
+    private static final byte[] TEMPLATE = readTemplate();
+    private static final AtomicInteger COPIES = new AtomicInteger();
+
+    /// Defined on the first sort; volatile so a thread that finds it set also sees the class fully initialized
+    private volatile Quick.Engine kernel;
+
+    @Override
+    public void sort(int[] array, Quick.TestSetup setup) {
+        kernel(setup).sort(array, setup);
+    }
+
+    private Quick.Engine kernel(Quick.TestSetup setup) {
+        Quick.Engine specialized = kernel;
+        if (specialized == null) {
+            synchronized (this) {
+                specialized = kernel;
+                if (specialized == null) {
+                    kernel = specialized = specialize(setup);
+                }
+            }
+        }
+        return specialized;
+    }
+
+    /**
+     * New SortKernel class bound to setup
+     */
+    static Quick.Engine specialize(Quick.TestSetup setup) {
+        String name = TEMPLATE_NAME + "$" + COPIES.incrementAndGet();
+        try {
+            Class<?> copy = MethodHandles.lookup().defineClass(rename(TEMPLATE, TEMPLATE_NAME, name));
+            return (Quick.Engine) copy.getConstructor(Quick.TestSetup.class).newInstance(setup);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not specialize " + setup.name, e);
+        }
+    }
+
+    private static byte[] readTemplate() {
+        try (InputStream in = SpecializedSort.class.getResourceAsStream(TEMPLATE_NAME + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + TEMPLATE_NAME + ".class on the classpath");
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            in.transferTo(bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copy of a class file with every reference to class from renamed to class to.
+     * Only the constant pool changes: UTF8 entries naming the class, or holding it in a descriptor,
+     * are rewritten with their new length; everything after the pool is copied as is
+     */
+    static byte[] rename(byte[] classFile, String from, String to) {
+        ByteBuffer in = ByteBuffer.wrap(classFile);
+        // Room for the longer name at every place the old one could appear
+        int growth = Math.max(0, to.length() - from.length());
+        ByteBuffer out = ByteBuffer.allocate(classFile.length + (classFile.length / from.length() + 1) * growth);
+        String descriptorFrom = "L" + from + ";";
+        String descriptorTo = "L" + to + ";";
+
+        // magic, minor_version, major_version
+        out.putLong(in.getLong());
+        int poolCount = in.getShort() & 0xFFFF;
+        out.putShort((short) poolCount);
+
+        for (int i = 1; i < poolCount; i++) {
+            byte tag = in.get();
+            out.put(tag);
+            switch (tag) {
+                case 1: // Utf8
+                    byte[] utf = new byte[in.getShort() & 0xFFFF];
+                    in.get(utf);
+                    // Class names are ASCII, so a byte-for-byte string keeps any other text intact
+                    String text = new String(utf, StandardCharsets.ISO_8859_1);
+                    if (text.equals(from)) {
+                        text = to;
+                    } else {
+                        text = text.replace(descriptorFrom, descriptorTo);
+                    }
+                    byte[] renamed = text.getBytes(StandardCharsets.ISO_8859_1);
+                    out.putShort((short) renamed.length);
+                    out.put(renamed);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    out.putLong(in.getLong());
+                    i++;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    out.putInt(in.getInt());
+                    break;
+                case 15: // MethodHandle
+                    out.put(in.get());
+                    out.putShort(in.getShort());
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    out.putShort(in.getShort());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        out.put(in);
+        byte[] result = new byte[out.position()];
+        out.flip();
+        out.get(result);
+        return result;
+    }
+}